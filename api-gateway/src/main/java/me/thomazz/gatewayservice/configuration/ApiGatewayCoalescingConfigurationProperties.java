@@ -0,0 +1,23 @@
+package me.thomazz.gatewayservice.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "route.coalescing")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiGatewayCoalescingConfigurationProperties {
+    private boolean enabled = true;
+    private Duration maxWait = Duration.ofSeconds(2L);
+    private DataSize maxBodySize = DataSize.ofKilobytes(256L);
+}
@@ -1,36 +1,62 @@
 package me.thomazz.gatewayservice.configuration;
 
 import me.thomazz.gatewayservice.filter.AuthenticationFilter;
-import org.springframework.beans.factory.annotation.Autowired;
+import me.thomazz.gatewayservice.filter.RequestCoalescingFilter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import reactor.netty.http.client.PrematureCloseException;
 
+import java.net.ConnectException;
 import java.time.Clock;
 
 @Configuration
 public class ApiGatewayConfiguration {
-    @Autowired
-    private AuthenticationFilter filter;
     @Value("${service.user-service-uri}")
     private String userServiceUri;
 
     @Bean
-    public RouteLocator routeLocator(RouteLocatorBuilder builder, ApiGatewayRoutePathConfigurationProperties routeProperties) {
+    public RouteLocator routeLocator(
+        RouteLocatorBuilder builder,
+        ApiGatewayRoutePathConfigurationProperties routeProperties,
+        ApiGatewayRetryConfigurationProperties retryProperties,
+        AuthenticationFilter authenticationFilter, // Method parameters, the filters depend on the clock below
+        RequestCoalescingFilter coalescingFilter
+    ) {
         String[] secured = routeProperties.getSecured().toArray(String[]::new);
 
         return builder.routes()
             .route(
                 "user-service",
                 route -> route.path(secured)
-                    .filters(filter -> filter.filter(this.filter))
+                    .filters(filter -> {
+                        filter.filter(authenticationFilter).filter(coalescingFilter);
+                        if (retryProperties.isEnabled()) {
+                            filter.retry(retry -> this.configureRetry(retry, retryProperties));
+                        }
+                        return filter;
+                    })
                     .uri(this.userServiceUri)
             )
             .build();
     }
 
+    // Covers an upstream instance that went away during a rolling deploy: refused connections, pooled connections
+    // it closed underneath us and the 503 of a draining instance. Only idempotent methods are retried by default.
+    private void configureRetry(RetryGatewayFilterFactory.RetryConfig retry, ApiGatewayRetryConfigurationProperties properties) {
+        retry.setRetries(properties.getRetries())
+            .setMethods(properties.getMethods().toArray(HttpMethod[]::new))
+            .setSeries()
+            .setStatuses(HttpStatus.SERVICE_UNAVAILABLE)
+            .setExceptions(ConnectException.class, PrematureCloseException.class)
+            .setBackoff(properties.getFirstBackoff(), properties.getMaxBackoff(), 2, true);
+    }
+
     @Bean
     public Clock clock() {
         return Clock.systemUTC();
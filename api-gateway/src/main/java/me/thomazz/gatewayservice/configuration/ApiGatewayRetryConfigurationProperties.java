@@ -0,0 +1,26 @@
+package me.thomazz.gatewayservice.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "route.retry")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiGatewayRetryConfigurationProperties {
+    private boolean enabled = true;
+    private int retries = 3;
+    private List<HttpMethod> methods = List.of(HttpMethod.GET, HttpMethod.HEAD);
+    private Duration firstBackoff = Duration.ofMillis(50L);
+    private Duration maxBackoff = Duration.ofMillis(500L);
+}
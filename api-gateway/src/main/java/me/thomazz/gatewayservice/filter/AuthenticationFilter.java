@@ -1,17 +1,29 @@
 package me.thomazz.gatewayservice.filter;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import me.thomazz.gatewayservice.configuration.ApiGatewayRoutePathConfigurationProperties;
+import me.thomazz.gatewayservice.identity.IdentityHeaderSigner;
+import me.thomazz.gatewayservice.jwt.HmacJwtVerifier;
+import me.thomazz.gatewayservice.jwt.HmacJwtVerifier.Result;
+import me.thomazz.gatewayservice.jwt.HmacJwtVerifier.Verification;
+import me.thomazz.gatewayservice.jwt.JwksKeyCache;
+import me.thomazz.gatewayservice.jwt.TokenRevocationList;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
 import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.reactive.ServerHttpRequest;
@@ -22,34 +34,65 @@ import org.springframework.web.util.pattern.PathPattern;
 import org.springframework.web.util.pattern.PathPatternParser;
 import reactor.core.publisher.Mono;
 
+import javax.crypto.SecretKey;
+import java.security.Key;
 import java.time.Clock;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
-@RefreshScope
+import static me.thomazz.gatewayservice.identity.IdentityHeaderSigner.IDENTITY_HEADER;
+
 @Component
-public class AuthenticationFilter implements GatewayFilter {
+public class AuthenticationFilter implements GatewayFilter, Ordered {
+    public static final String TOKEN_COOKIE = "spring_kube_infra_login_token";
+
     private final Clock clock;
     private final List<PathPattern> allowedPatterns;
+    private final JwksKeyCache keyCache;
+    private final TokenRevocationList revocationList;
+    private final SecretKey hmacKey;
+    private final HmacJwtVerifier jwtVerifier;
+    private final IdentityHeaderSigner identitySigner;
     private JwtParser jwtParser;
 
     @Autowired
     public AuthenticationFilter(
         Clock clock,
         ApiGatewayRoutePathConfigurationProperties routeProperties,
-        @Value("${jwt.secret}") String jwtSecret
+        JwksKeyCache keyCache,
+        TokenRevocationList revocationList,
+        @Value("${jwt.secret:}") String jwtSecret,
+        @Value("${identity.secret:}") String identitySecret
     ) {
         this.clock = clock;
+        this.keyCache = keyCache;
+        this.revocationList = revocationList;
 
         PathPatternParser parser = new PathPatternParser();
         this.allowedPatterns = routeProperties.getAllowed().stream()
             .map(parser::parse)
             .collect(Collectors.toList());
 
+        // Without a shared secret only tokens signed with keys from the JWKS are accepted
+        this.hmacKey = jwtSecret.isEmpty() ? null : Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtVerifier = this.hmacKey == null ? null : new HmacJwtVerifier(this.hmacKey, this.revocationList);
+
+        // Without an identity secret the token cookie is passed through as before
+        this.identitySigner = identitySecret.isEmpty() ? null : new IdentityHeaderSigner(identitySecret);
         this.jwtParser = Jwts.parserBuilder()
             .setClock(() -> Date.from(this.clock.instant()))
-            .setSigningKey(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    return AuthenticationFilter.this.resolveKey(header);
+                }
+
+                @Override
+                public Key resolveSigningKey(JwsHeader header, String plaintext) {
+                    return AuthenticationFilter.this.resolveKey(header);
+                }
+            })
             .build();
     }
 
@@ -58,22 +101,36 @@ public class AuthenticationFilter implements GatewayFilter {
         ServerHttpRequest request = exchange.getRequest();
         ServerHttpResponse response = exchange.getResponse();
 
+        if (request.getHeaders().containsKey(IDENTITY_HEADER)) {
+            request = request.mutate().headers(headers -> headers.remove(IDENTITY_HEADER)).build(); // Never trust the client
+        }
+
         if (this.isSecured(request)) {
-            if (!request.getCookies().containsKey("spring_kube_infra_login_token")) {
+            if (!request.getCookies().containsKey(TOKEN_COOKIE)) {
                 response.setStatusCode(HttpStatus.UNAUTHORIZED);
                 return response.setComplete();
             }
 
-            HttpCookie cookie = request.getCookies().get("spring_kube_infra_login_token").get(0);
+            HttpCookie cookie = request.getCookies().get(TOKEN_COOKIE).get(0);
             String accessToken = cookie.getValue();
+            Verification verification = this.authenticate(accessToken);
 
-            if (this.isExpired(accessToken)) {
+            if (verification.result() != Result.VALID) {
                 response.setStatusCode(HttpStatus.UNAUTHORIZED);
                 return response.setComplete();
             }
+
+            if (this.identitySigner != null) {
+                request = this.withIdentity(request, verification);
+            }
         }
 
-        return chain.filter(exchange);
+        return chain.filter(request == exchange.getRequest() ? exchange : exchange.mutate().request(request).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
     }
 
     private boolean isSecured(ServerHttpRequest request) {
@@ -82,12 +139,73 @@ public class AuthenticationFilter implements GatewayFilter {
     }
 
     public boolean isExpired(String accessToken) {
+        return this.authenticate(accessToken).result() != Result.VALID;
+    }
+
+    private Verification authenticate(String accessToken) {
+        if (this.jwtVerifier == null) {
+            return this.authenticateParsed(accessToken);
+        }
+
+        Verification verification = this.jwtVerifier.verify(accessToken, this.clock.millis());
+        return verification.result() == Result.UNSUPPORTED ? this.authenticateParsed(accessToken) : verification;
+    }
+
+    private Verification authenticateParsed(String accessToken) {
         try {
             Claims accessClaims = this.jwtParser.parseClaimsJws(accessToken).getBody();
             Date now = Date.from(this.clock.instant());
-            return accessClaims.getExpiration().before(now);
+
+            if (accessClaims.getExpiration() == null || accessClaims.getExpiration().before(now)) {
+                return Verification.EXPIRED;
+            }
+
+            Long subject = accessClaims.get("id", Long.class);
+            if (subject == null) {
+                return Verification.INVALID;
+            }
+
+            long issuedAt = accessClaims.getIssuedAt() == null ? 0L : accessClaims.getIssuedAt().toInstant().getEpochSecond();
+            if (this.revocationList.isRevoked(subject, issuedAt)) {
+                return Verification.REVOKED;
+            }
+
+            return new Verification(Result.VALID, subject, accessClaims.getExpiration().toInstant().getEpochSecond());
         } catch (JwtException ignored) {
-            return true;
+            return Verification.INVALID;
         }
     }
+
+    // Replaces the token cookie with a signed identity, upstream no longer needs to parse the token
+    private ServerHttpRequest withIdentity(ServerHttpRequest request, Verification verification) {
+        String identity = this.identitySigner.sign(verification.subject(), verification.expiresAt());
+        String cookies = request.getCookies().values().stream()
+            .flatMap(List::stream)
+            .filter(cookie -> !TOKEN_COOKIE.equals(cookie.getName()))
+            .map(HttpCookie::toString)
+            .collect(Collectors.joining("; "));
+
+        return request.mutate()
+            .headers(headers -> {
+                headers.set(IDENTITY_HEADER, identity);
+
+                if (cookies.isEmpty()) {
+                    headers.remove(HttpHeaders.COOKIE);
+                } else {
+                    headers.set(HttpHeaders.COOKIE, cookies);
+                }
+            })
+            .build();
+    }
+
+    private Key resolveKey(JwsHeader<?> header) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(header.getAlgorithm());
+        Key key = algorithm.isHmac() ? this.hmacKey : this.keyCache.getKey(header.getKeyId());
+
+        if (key == null) {
+            throw new UnsupportedJwtException("No verification key for " + algorithm.getValue() + " token");
+        }
+
+        return key;
+    }
 }
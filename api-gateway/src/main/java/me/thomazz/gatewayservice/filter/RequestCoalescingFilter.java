@@ -0,0 +1,217 @@
+package me.thomazz.gatewayservice.filter;
+
+import me.thomazz.gatewayservice.configuration.ApiGatewayCoalescingConfigurationProperties;
+import me.thomazz.gatewayservice.identity.IdentityHeaderSigner;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Component
+public class RequestCoalescingFilter implements GatewayFilter, Ordered {
+    private static final List<String> VARYING_HEADERS = List.of(
+        HttpHeaders.IF_NONE_MATCH,
+        HttpHeaders.IF_MODIFIED_SINCE,
+        HttpHeaders.ACCEPT,
+        HttpHeaders.ACCEPT_ENCODING
+    );
+
+    private final Map<String, Sinks.One<CoalescedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Duration maxWait;
+    private final int maxBodySize;
+
+    @Autowired
+    public RequestCoalescingFilter(ApiGatewayCoalescingConfigurationProperties coalescingProperties) {
+        this.enabled = coalescingProperties.isEnabled();
+        this.maxWait = coalescingProperties.getMaxWait();
+        this.maxBodySize = (int) coalescingProperties.getMaxBodySize().toBytes();
+    }
+
+    // Collapses concurrent identical GET requests into one upstream call, keyed per identity or login token
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!this.enabled || !this.isCoalescable(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+
+        return Mono.defer(() -> {
+            String key = this.key(exchange.getRequest());
+            Sinks.One<CoalescedResponse> sink = Sinks.one();
+            Sinks.One<CoalescedResponse> existing = this.inFlight.putIfAbsent(key, sink);
+
+            if (existing != null) {
+                return this.follow(existing, exchange, chain);
+            }
+
+            return this.lead(key, sink, exchange, chain);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        // Must wrap the response before it is written by the netty write filter
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private Mono<Void> lead(String key, Sinks.One<CoalescedResponse> sink, ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpResponse capturing = new CapturingResponse(exchange.getResponse(), sink);
+
+        return chain.filter(exchange.mutate().response(capturing).build())
+            .doOnError(sink::tryEmitError)
+            .doFinally(signal -> {
+                this.inFlight.remove(key, sink);
+                sink.tryEmitEmpty(); // Releases waiters if nothing was captured
+            });
+    }
+
+    private Mono<Void> follow(Sinks.One<CoalescedResponse> sink, ServerWebExchange exchange, GatewayFilterChain chain) {
+        return sink.asMono()
+            .timeout(this.maxWait)
+            .onErrorResume(ignored -> Mono.empty()) // Leader failed or took too long, go upstream ourselves
+            .map(coalesced -> this.write(coalesced, exchange.getResponse()))
+            .defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+            .flatMap(Function.identity());
+    }
+
+    private Mono<Void> write(CoalescedResponse coalesced, ServerHttpResponse response) {
+        response.setStatusCode(coalesced.status());
+        response.getHeaders().putAll(coalesced.headers());
+
+        if (coalesced.body() == null) {
+            return response.setComplete();
+        }
+
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(coalesced.body())));
+    }
+
+    private boolean isCoalescable(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return request.getMethod() == HttpMethod.GET
+            && headers.getContentLength() <= 0
+            && !headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    private String key(ServerHttpRequest request) {
+        String identity = request.getHeaders().getFirst(IdentityHeaderSigner.IDENTITY_HEADER);
+        HttpCookie cookie = request.getCookies().getFirst(AuthenticationFilter.TOKEN_COOKIE);
+        String subject = identity != null ? identity : cookie == null ? "" : cookie.getValue();
+        String query = request.getURI().getRawQuery();
+
+        // Headers the upstream answer depends on, a conditional request must not hand its 304 to a plain one
+        StringBuilder key = new StringBuilder(subject).append(' ').append(request.getURI().getRawPath());
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        for (String name : VARYING_HEADERS) {
+            key.append('\n').append(name).append(':').append(String.join(",", request.getHeaders().getOrEmpty(name)));
+        }
+
+        return key.toString();
+    }
+
+    private record CoalescedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+        private final Sinks.One<CoalescedResponse> sink;
+        private final List<DataBuffer> held = new ArrayList<>();
+        private int heldSize;
+        private boolean passing;
+
+        private CapturingResponse(ServerHttpResponse delegate, Sinks.One<CoalescedResponse> sink) {
+            super(delegate);
+            this.sink = sink;
+        }
+
+        // Holds the body while it fits the limit and hands it to the followers in one piece. Past the limit what was
+        // held is written and the rest streams through, the followers go upstream themselves.
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            Flux<DataBuffer> passed = Flux.from(body)
+                .concatMap(this::hold)
+                .concatWith(Mono.defer(this::flushHeld))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .doFinally(signal -> {
+                    this.held.forEach(DataBufferUtils::release);
+                    this.held.clear();
+                });
+
+            return super.writeWith(passed);
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            this.publish(null);
+            return super.setComplete();
+        }
+
+        private Flux<DataBuffer> hold(DataBuffer buffer) {
+            if (this.passing) {
+                return Flux.just(buffer);
+            }
+
+            this.held.add(buffer);
+            this.heldSize += buffer.readableByteCount();
+            if (this.heldSize <= RequestCoalescingFilter.this.maxBodySize) {
+                return Flux.empty();
+            }
+
+            this.passing = true;
+            this.sink.tryEmitEmpty();
+
+            List<DataBuffer> buffers = List.copyOf(this.held);
+            this.held.clear();
+            return Flux.fromIterable(buffers);
+        }
+
+        private Mono<DataBuffer> flushHeld() {
+            if (this.passing) {
+                return Mono.empty();
+            }
+
+            byte[] bytes = new byte[this.heldSize];
+            int position = 0;
+            for (DataBuffer buffer : this.held) {
+                int count = buffer.readableByteCount();
+                buffer.read(bytes, position, count);
+                position += count;
+                DataBufferUtils.release(buffer);
+            }
+            this.held.clear();
+
+            this.publish(bytes);
+            return Mono.just(this.bufferFactory().wrap(bytes));
+        }
+
+        private void publish(byte[] body) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(this.getHeaders());
+            headers.remove(HttpHeaders.SET_COOKIE);
+            this.sink.tryEmitValue(new CoalescedResponse(this.getStatusCode(), headers, body));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package me.thomazz.gatewayservice.jwt;
+
+// One byte per counter, counters that saturate are never decremented again to avoid false negatives
+public class CountingBloomFilter {
+    private static final int HASHES = 3;
+    private static final int MAX_COUNT = 0xFF;
+
+    private final byte[] counters;
+    private final int mask;
+
+    public CountingBloomFilter(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size - 1, 1)) << 1; // Next power of two
+        this.counters = new byte[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public void add(long value) {
+        long hash = mix(value);
+        for (int i = 0; i < HASHES; i++) {
+            int index = this.index(hash, i);
+            int count = this.counters[index] & MAX_COUNT;
+            if (count < MAX_COUNT) {
+                this.counters[index] = (byte) (count + 1);
+            }
+        }
+    }
+
+    public void remove(long value) {
+        long hash = mix(value);
+        for (int i = 0; i < HASHES; i++) {
+            int index = this.index(hash, i);
+            int count = this.counters[index] & MAX_COUNT;
+            if (count > 0 && count < MAX_COUNT) {
+                this.counters[index] = (byte) (count - 1);
+            }
+        }
+    }
+
+    public boolean mightContain(long value) {
+        long hash = mix(value);
+        for (int i = 0; i < HASHES; i++) {
+            if (this.counters[this.index(hash, i)] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return this.counters.length;
+    }
+
+    private int index(long hash, int i) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+        return (first + i * second) & this.mask;
+    }
+
+    // Stafford variant 13 of the murmur3 finalizer, user ids are sequential so they need spreading
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
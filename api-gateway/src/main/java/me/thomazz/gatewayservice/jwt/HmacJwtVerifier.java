@@ -0,0 +1,198 @@
+package me.thomazz.gatewayservice.jwt;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+
+// Verifies the tokens issued by the user service without building claims or throwing on bad input
+public class HmacJwtVerifier {
+    private static final byte[] DECODE_TABLE = new byte[128];
+    private static final byte[] EXP_KEY = "\"exp\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IAT_KEY = "\"iat\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ID_KEY = "\"id\":".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
+    static {
+        Arrays.fill(DECODE_TABLE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE_TABLE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final SecretKey key;
+    private final TokenRevocationList revocationList;
+    private final String jcaName;
+    private final String encodedHeader;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(this::createScratch);
+
+    public HmacJwtVerifier(SecretKey key, TokenRevocationList revocationList) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forSigningKey(key);
+
+        this.key = key;
+        this.revocationList = revocationList;
+        this.jcaName = algorithm.getJcaName();
+        this.encodedHeader = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(("{\"alg\":\"" + algorithm.getValue() + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Verification verify(String token, long nowMillis) {
+        int length = token.length();
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return Verification.INVALID;
+        }
+
+        if (length > MAX_TOKEN_LENGTH || !token.startsWith(this.encodedHeader) || headerEnd != this.encodedHeader.length()) {
+            return Verification.UNSUPPORTED; // Different header or an unusual token, leave it to the full parser
+        }
+
+        Scratch scratch = this.scratch.get();
+        byte[] input = scratch.input;
+
+        for (int i = 0; i < payloadEnd; i++) {
+            char c = token.charAt(i);
+            if (c >= 128) {
+                return Verification.INVALID;
+            }
+            input[i] = (byte) c;
+        }
+
+        try {
+            scratch.mac.update(input, 0, payloadEnd);
+            scratch.mac.doFinal(scratch.expected, 0);
+        } catch (ShortBufferException e) {
+            return Verification.UNSUPPORTED;
+        }
+
+        int expectedLength = scratch.expected.length;
+        int signatureLength = decode(token, payloadEnd + 1, length, scratch.decoded);
+        if (signatureLength != expectedLength || !constantTimeEquals(scratch.expected, scratch.decoded, expectedLength)) {
+            return Verification.INVALID;
+        }
+
+        int payloadLength = decode(token, headerEnd + 1, payloadEnd, scratch.decoded);
+        if (payloadLength < 0) {
+            return Verification.INVALID;
+        }
+
+        long expiration = findNumericClaim(scratch.decoded, payloadLength, EXP_KEY);
+        if (expiration < 0) {
+            return Verification.UNSUPPORTED;
+        }
+
+        if (expiration < (nowMillis + 999L) / 1000L) { // Same as now > exp in millis, without overflowing exp
+            return Verification.EXPIRED;
+        }
+
+        long subject = findNumericClaim(scratch.decoded, payloadLength, ID_KEY);
+        if (subject < 0) {
+            return Verification.INVALID; // Cannot be checked against revocations
+        }
+
+        long issuedAt = Math.max(findNumericClaim(scratch.decoded, payloadLength, IAT_KEY), 0L);
+        return this.revocationList.isRevoked(subject, issuedAt)
+            ? Verification.REVOKED
+            : new Verification(Result.VALID, subject, expiration);
+    }
+
+    private static int decode(String source, int start, int end, byte[] target) {
+        int count = end - start;
+        if (count % 4 == 1) {
+            return -1;
+        }
+
+        int bits = 0;
+        int bitCount = 0;
+        int written = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? DECODE_TABLE[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+
+            bits = (bits << 6) | value;
+            bitCount += 6;
+
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[written++] = (byte) (bits >> bitCount);
+            }
+        }
+
+        return written;
+    }
+
+    private static boolean constantTimeEquals(byte[] first, byte[] second, int length) {
+        int result = 0;
+        for (int i = 0; i < length; i++) {
+            result |= first[i] ^ second[i];
+        }
+        return result == 0;
+    }
+
+    // Signature is verified at this point, so the payload is our own compact JSON
+    private static long findNumericClaim(byte[] payload, int length, byte[] key) {
+        outer:
+        for (int i = 0; i <= length - key.length; i++) {
+            for (int j = 0; j < key.length; j++) {
+                if (payload[i + j] != key[j]) {
+                    continue outer;
+                }
+            }
+
+            long value = 0L;
+            int digits = 0;
+            for (int k = i + key.length; k < length && payload[k] >= '0' && payload[k] <= '9'; k++, digits++) {
+                int digit = payload[k] - '0';
+                if (value > (Long.MAX_VALUE - digit) / 10L) {
+                    return -1L;
+                }
+                value = value * 10L + digit;
+            }
+
+            return digits == 0 ? -1L : value;
+        }
+
+        return -1L;
+    }
+
+    private Scratch createScratch() {
+        try {
+            Mac mac = Mac.getInstance(this.jcaName);
+            mac.init(this.key);
+            return new Scratch(mac, new byte[MAX_TOKEN_LENGTH], new byte[MAX_TOKEN_LENGTH], new byte[mac.getMacLength()]);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + this.jcaName, e);
+        }
+    }
+
+    public enum Result {
+        VALID,
+        EXPIRED,
+        REVOKED,
+        INVALID,
+        UNSUPPORTED
+    }
+
+    // Subject and expiration in epoch seconds are only set for valid tokens
+    public record Verification(Result result, long subject, long expiresAt) {
+        public static final Verification EXPIRED = new Verification(Result.EXPIRED, -1L, -1L);
+        public static final Verification REVOKED = new Verification(Result.REVOKED, -1L, -1L);
+        public static final Verification INVALID = new Verification(Result.INVALID, -1L, -1L);
+        public static final Verification UNSUPPORTED = new Verification(Result.UNSUPPORTED, -1L, -1L);
+    }
+
+    private record Scratch(Mac mac, byte[] input, byte[] decoded, byte[] expected) {
+    }
+}
@@ -0,0 +1,130 @@
+package me.thomazz.gatewayservice.jwt;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps the user service's published verification keys in memory, refreshed in the background
+@Slf4j
+@Component
+public class JwksKeyCache {
+    private static final ParameterizedTypeReference<Map<String, List<Map<String, String>>>> JWKS_TYPE =
+        new ParameterizedTypeReference<>() {};
+
+    private final WebClient webClient;
+    private final Duration refreshInterval;
+    private final Duration minRefreshInterval;
+    private final Clock clock;
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile Instant lastRefresh = Instant.MIN;
+    private Disposable refresher;
+
+    @Autowired
+    public JwksKeyCache(
+        WebClient.Builder webClientBuilder,
+        @Value("${jwt.jwks.uri}") String jwksUri,
+        @Value("${jwt.jwks.refresh-interval}") Duration refreshInterval,
+        @Value("${jwt.jwks.min-refresh-interval}") Duration minRefreshInterval,
+        Clock clock
+    ) {
+        this.webClient = webClientBuilder.baseUrl(jwksUri).build();
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        this.refresher = Flux.interval(Duration.ZERO, this.refreshInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> this.refresh())
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.refresher.dispose();
+    }
+
+    public PublicKey getKey(String keyId) {
+        PublicKey key = keyId == null ? null : this.keys.get(keyId);
+
+        // Unknown key ids can mean a rotation we have not seen yet, but must not let callers hammer the service
+        if (key == null && this.lastRefresh.plus(this.minRefreshInterval).isBefore(this.clock.instant())) {
+            this.refresh().subscribe();
+        }
+
+        return key;
+    }
+
+    public Mono<Void> refresh() {
+        this.lastRefresh = this.clock.instant();
+
+        return this.webClient.get()
+            .retrieve()
+            .bodyToMono(JWKS_TYPE)
+            .map(jwks -> this.parseKeys(jwks.getOrDefault("keys", List.of())))
+            .doOnNext(keys -> this.keys = keys)
+            .onErrorResume(e -> {
+                log.warn("Unable to refresh JWKS, keeping {} known keys: {}", this.keys.size(), e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private Map<String, PublicKey> parseKeys(List<Map<String, String>> jwks) {
+        Map<String, PublicKey> keys = new HashMap<>();
+
+        for (Map<String, String> jwk : jwks) {
+            if (!"EC".equals(jwk.get("kty")) || !"P-256".equals(jwk.get("crv")) || jwk.get("kid") == null) {
+                continue;
+            }
+
+            try {
+                keys.put(jwk.get("kid"), this.parseEcKey(jwk.get("x"), jwk.get("y")));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Skipping invalid JWK {}: {}", jwk.get("kid"), e.getMessage());
+            }
+        }
+
+        return Map.copyOf(keys);
+    }
+
+    private PublicKey parseEcKey(String x, String y) throws GeneralSecurityException {
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec("secp256r1"));
+
+        ECPoint point = new ECPoint(
+            new BigInteger(1, Base64.getUrlDecoder().decode(x)),
+            new BigInteger(1, Base64.getUrlDecoder().decode(y))
+        );
+
+        ECPublicKeySpec spec = new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class));
+        return KeyFactory.getInstance("EC").generatePublic(spec);
+    }
+}
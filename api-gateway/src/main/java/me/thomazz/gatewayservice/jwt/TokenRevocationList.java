@@ -0,0 +1,72 @@
+package me.thomazz.gatewayservice.jwt;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bloom filter answers the common 'not revoked' case, the exact map confirms hits
+@Component
+public class TokenRevocationList {
+    private final CountingBloomFilter filter;
+    private final Map<Long, Revocation> revocations = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private volatile int version; // Written after every filter update so readers see the counters
+
+    @Autowired
+    public TokenRevocationList(@Value("${jwt.revocation.filter-size}") int filterSize, Clock clock) {
+        this.filter = new CountingBloomFilter(filterSize);
+        this.clock = clock;
+    }
+
+    public boolean isRevoked(long subject, long issuedAt) {
+        if (this.version == 0 || !this.filter.mightContain(subject)) {
+            return false;
+        }
+
+        Revocation revocation = this.revocations.get(subject);
+        return revocation != null && issuedAt <= revocation.revokedAt();
+    }
+
+    public synchronized void add(long subject, long revokedAt, long expiresAt) {
+        Revocation existing = this.revocations.get(subject);
+
+        if (existing == null) {
+            this.filter.add(subject);
+            this.revocations.put(subject, new Revocation(revokedAt, expiresAt));
+        } else {
+            this.revocations.put(subject, new Revocation(
+                Math.max(existing.revokedAt(), revokedAt),
+                Math.max(existing.expiresAt(), expiresAt)
+            ));
+        }
+
+        this.version++;
+    }
+
+    // Entries are dropped once every token they cover has expired on its own
+    public synchronized void purgeExpired() {
+        long now = this.clock.instant().getEpochSecond();
+
+        this.revocations.entrySet().removeIf(entry -> {
+            if (entry.getValue().expiresAt() >= now) {
+                return false;
+            }
+
+            this.filter.remove(entry.getKey());
+            return true;
+        });
+
+        this.version++;
+    }
+
+    public int size() {
+        return this.revocations.size();
+    }
+
+    private record Revocation(long revokedAt, long expiresAt) {
+    }
+}
@@ -0,0 +1,121 @@
+package me.thomazz.gatewayservice.jwt;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Pulls revocations published by the user service into the in memory revocation list.
+// Revocation ids are taken on insert and can commit out of order, so every poll reads again from a checkpoint at least
+// the lookback behind the newest id seen. Ids already applied are skipped.
+@Slf4j
+@Component
+public class TokenRevocationPoller {
+    private static final ParameterizedTypeReference<List<Map<String, Long>>> REVOCATIONS_TYPE =
+        new ParameterizedTypeReference<>() {};
+    // Binary JSON, smaller and cheaper to parse on every poll. JSON stays acceptable for services that predate it.
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final WebClient webClient;
+    private final TokenRevocationList revocationList;
+    private final Duration refreshInterval;
+    private final long lookbackMillis;
+    private final int pageSize;
+    private final Clock clock;
+    private final Set<Long> applied = new HashSet<>(); // Ids above the rescan point
+    private long cursor;
+    private long rescanFromId;
+    private long checkpointId;
+    private long checkpointAt;
+    private Disposable poller;
+
+    @Autowired
+    public TokenRevocationPoller(
+        WebClient.Builder webClientBuilder,
+        TokenRevocationList revocationList,
+        @Value("${jwt.revocation.uri}") String revocationUri,
+        @Value("${jwt.revocation.refresh-interval}") Duration refreshInterval,
+        @Value("${jwt.revocation.lookback}") Duration lookback,
+        @Value("${jwt.revocation.page-size}") int pageSize,
+        Clock clock
+    ) {
+        this.webClient = webClientBuilder.baseUrl(revocationUri).build();
+        this.revocationList = revocationList;
+        this.refreshInterval = refreshInterval;
+        this.lookbackMillis = lookback.toMillis();
+        this.pageSize = pageSize;
+        this.clock = clock;
+        this.checkpointAt = clock.millis();
+    }
+
+    @PostConstruct
+    public void start() {
+        this.poller = Flux.interval(Duration.ZERO, this.refreshInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> this.poll())
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.poller.dispose();
+    }
+
+    public Mono<Void> poll() {
+        long start = this.clock.millis();
+
+        return this.fetch(this.rescanFromId)
+            .expand(page -> page.size() < this.pageSize ? Mono.empty() : this.fetch(page.get(page.size() - 1).get("id")))
+            .doOnNext(page -> page.forEach(this::apply))
+            .then(Mono.fromRunnable(() -> this.advance(start)))
+            .onErrorResume(e -> {
+                log.warn("Unable to poll token revocations after {}: {}", this.rescanFromId, e.getMessage());
+                return Mono.empty();
+            })
+            .then(Mono.fromRunnable(this.revocationList::purgeExpired));
+    }
+
+    private Mono<List<Map<String, Long>>> fetch(long after) {
+        return this.webClient.get()
+            .uri(builder -> builder.queryParam("after", after).build())
+            .accept(SMILE, MediaType.APPLICATION_JSON)
+            .retrieve()
+            .bodyToMono(REVOCATIONS_TYPE);
+    }
+
+    private void apply(Map<String, Long> revocation) {
+        long id = revocation.get("id");
+        if (this.applied.add(id)) {
+            this.revocationList.add(revocation.get("subject"), revocation.get("revokedAt"), revocation.get("expiresAt"));
+            this.cursor = Math.max(this.cursor, id);
+        }
+    }
+
+    // The rescan point only moves to an id seen a full lookback ago, a transaction that took a lower id has committed
+    // by then unless it ran longer than the lookback
+    private void advance(long now) {
+        if (now - this.checkpointAt < this.lookbackMillis) {
+            return;
+        }
+
+        this.rescanFromId = this.checkpointId;
+        this.checkpointId = this.cursor;
+        this.checkpointAt = now;
+        this.applied.removeIf(id -> id <= this.rescanFromId);
+    }
+}
@@ -0,0 +1,104 @@
+package me.thomazz.gatewayservice.warmup;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static me.thomazz.gatewayservice.filter.AuthenticationFilter.TOKEN_COOKIE;
+
+// Sends requests through the local server before the gateway reports ready, runners complete before the readiness
+// state becomes ACCEPTING_TRAFFIC. With the HMAC secret configured it signs a short lived token for user id 0, which
+// never exists, so token verification, identity signing, routing, coalescing and the Netty client to the user service
+// are compiled; the user service answers 404 from a primary key lookup. Without the secret only the rejections and a
+// forwarded public route are warmed.
+@Slf4j
+@Component
+public class WarmUpRunner implements ApplicationRunner {
+    private final Environment environment;
+    private final int iterations;
+    private final Duration timeout;
+    private final SecretKey hmacKey;
+
+    @Autowired
+    public WarmUpRunner(
+        Environment environment,
+        @Value("${warm-up.iterations}") int iterations,
+        @Value("${warm-up.timeout}") Duration timeout,
+        @Value("${jwt.secret:}") String jwtSecret
+    ) {
+        this.environment = environment;
+        this.iterations = iterations;
+        this.timeout = timeout;
+        this.hmacKey = jwtSecret.isEmpty() ? null : Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int port = this.environment.getProperty("local.server.port", Integer.class, -1);
+        if (this.iterations <= 0 || port <= 0) {
+            return;
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        List<HttpRequest> requests = this.requests("http://localhost:" + port);
+        long start = System.nanoTime();
+        long deadline = start + this.timeout.toNanos();
+        int sent = 0;
+
+        try {
+            for (int i = 0; i < this.iterations && System.nanoTime() < deadline; i++) {
+                for (HttpRequest request : requests) {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                    sent++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Warm-up stopped after {} requests: {}", sent, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        log.info("Warmed up with {} requests in {} ms", sent, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private List<HttpRequest> requests(String baseUri) {
+        URI me = URI.create(baseUri + "/api/v1/users/me");
+        List<HttpRequest> requests = new ArrayList<>(List.of(
+            HttpRequest.newBuilder(me).build(), // Rejected, no token
+            HttpRequest.newBuilder(me).header("Cookie", TOKEN_COOKIE + "=eyJhbGciOiJIUzI1NiJ9.eyJpZCI6MCwiZXhwIjowfQ.invalid").build(),
+            HttpRequest.newBuilder(URI.create(baseUri + "/api/v1/users/refresh")).build() // Public, forwarded and refused upstream
+        ));
+
+        if (this.hmacKey != null) {
+            Instant now = Instant.now();
+            String token = Jwts.builder()
+                .claim("id", 0L)
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(this.timeout).plusSeconds(60L)))
+                .signWith(this.hmacKey)
+                .compact();
+
+            requests.add(HttpRequest.newBuilder(me).header("Cookie", TOKEN_COOKIE + "=" + token).build());
+        }
+
+        return requests;
+    }
+}
@@ -27,7 +27,9 @@ import java.util.Date;
 import java.util.Map;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
 import static com.github.tomakehurst.wiremock.client.WireMock.ok;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
@@ -123,4 +125,39 @@ public class ApiGatewayApplicationTests {
             .exchange()
             .expectStatus().isUnauthorized();
     }
+
+    @Test
+    @Order(5)
+    @DisplayName("Protected route - Forwards identity instead of token")
+    public void testProtectedRouteForwardsIdentity() {
+        stubFor(get(urlEqualTo("/api/v1/users"))
+            .withHeader("X-User-Identity", matching("1\\.\\d+\\..+"))
+            .withHeader("Cookie", absent())
+            .willReturn(ok()));
+
+        String jwtToken = Jwts.builder()
+            .setClaims(Map.of("id", 1L))
+            .setSubject("1")
+            .setIssuedAt(Date.from(this.clock.instant()))
+            .setExpiration(Date.from(Instant.now(this.clock).plus(this.jwtExpiration)))
+            .signWith(this.jwtKey)
+            .compact();
+
+        this.webTestClient.get()
+            .uri("/api/v1/users")
+            .cookie("spring_kube_infra_login_token", jwtToken)
+            .exchange()
+            .expectStatus().isOk();
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Readiness probe - Up")
+    public void testReadinessProbeUp() {
+        this.webTestClient.get()
+            .uri("/actuator/health/readiness")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.status").isEqualTo("UP");
+    }
 }
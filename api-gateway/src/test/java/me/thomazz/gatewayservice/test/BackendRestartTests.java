@@ -0,0 +1,143 @@
+package me.thomazz.gatewayservice.test;
+
+import me.thomazz.gatewayservice.ApiGatewayApplication;
+import me.thomazz.gatewayservice.configuration.ApiGatewayConfiguration;
+import me.thomazz.gatewayservice.test.configuration.ApiGatewayTestConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Restarts the upstream the way a rolling deploy does while requests keep coming in through the gateway:
+// the old instance drains and closes its connections, nothing listens for a moment, then a new instance starts.
+@SpringBootTest(
+    classes = { ApiGatewayApplication.class, ApiGatewayConfiguration.class, ApiGatewayTestConfiguration.class },
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT
+)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BackendRestartTests {
+    private static final int BACKEND_PORT = freePort();
+    private static final int CLIENTS = 8;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicInteger served = new AtomicInteger();
+    private DisposableServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    public static void properties(DynamicPropertyRegistry registry) {
+        registry.add("service.user-service-uri", () -> "http://localhost:" + BACKEND_PORT);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (this.backend != null) {
+            this.backend.disposeNow();
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Backend restart under load - No failed requests")
+    public void testBackendRestartUnderLoad() throws InterruptedException {
+        this.backend = this.startBackend();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger succeeded = new AtomicInteger();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + "/api/v1/users/register")).build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            executor.execute(() -> {
+                while (running.get()) {
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() == 200) {
+                            succeeded.incrementAndGet();
+                        } else {
+                            failures.add(response.statusCode() + " " + response.body());
+                        }
+                    } catch (IOException e) {
+                        failures.add(e.toString());
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        Thread.sleep(500L);
+
+        // Old instance: tells the gateway to drop its connections, then finishes in flight requests and stops
+        this.draining.set(true);
+        Thread.sleep(200L);
+        this.backend.disposeNow(Duration.ofSeconds(5L));
+        int servedByOld = this.served.getAndSet(0);
+
+        // Nothing listening until the new instance is up
+        Thread.sleep(150L);
+        this.draining.set(false);
+        this.backend = this.startBackend();
+        Thread.sleep(500L);
+
+        running.set(false);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10L, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(failures).isEmpty();
+        assertThat(servedByOld).isPositive();
+        assertThat(this.served).hasPositiveValue();
+        assertThat(succeeded).hasPositiveValue();
+    }
+
+    private DisposableServer startBackend() {
+        return HttpServer.create()
+            .port(BACKEND_PORT)
+            .handle((request, response) -> {
+                this.served.incrementAndGet();
+                if (this.draining.get()) {
+                    response.header("Connection", "close");
+                }
+                return Mono.delay(Duration.ofMillis(5L)).then(response.sendString(Mono.just("ok")).then());
+            })
+            .bindNow();
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package me.thomazz.gatewayservice.test;
+
+import com.github.luben.zstd.ZstdInputStream;
+import me.thomazz.gatewayservice.ApiGatewayApplication;
+import me.thomazz.gatewayservice.configuration.ApiGatewayConfiguration;
+import me.thomazz.gatewayservice.test.configuration.ApiGatewayTestConfiguration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The upstream writes a listing in chunks without a length, the way the user service streams it
+@SpringBootTest(
+    classes = { ApiGatewayApplication.class, ApiGatewayConfiguration.class, ApiGatewayTestConfiguration.class },
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT
+)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ResponseCompressionTests {
+    private static final String LISTING = IntStream.rangeClosed(1, 100)
+        .mapToObj(id -> "{\"id\":" + id + ",\"username\":\"user" + id + "\",\"version\":0}")
+        .collect(Collectors.joining(",", "[", "]"));
+    private static final String SMALL = "{\"id\":1,\"username\":\"user1\",\"version\":0}";
+
+    private static DisposableServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeAll
+    public static void startBackend() {
+        backend = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                .get("/api/v1/users/register", (request, response) -> response.header("Content-Type", "application/json")
+                    .sendString(Flux.fromArray(LISTING.split("(?<=},)"))))
+                .get("/api/v1/users/login", (request, response) -> response.header("Content-Type", "application/json")
+                    .header("Content-Length", String.valueOf(SMALL.length()))
+                    .sendString(Flux.just(SMALL)))
+            )
+            .bindNow();
+    }
+
+    @AfterAll
+    public static void stopBackend() {
+        backend.disposeNow();
+    }
+
+    @DynamicPropertySource
+    public static void properties(DynamicPropertyRegistry registry) {
+        registry.add("service.user-service-uri", () -> "http://localhost:" + backend.port());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Compression - Gzip")
+    public void testGzip() throws Exception {
+        HttpResponse<byte[]> response = this.get("/api/v1/users/register", "gzip");
+
+        assertThat(response.headers().firstValue("Content-Encoding")).contains("gzip");
+        assertThat(response.body().length).isLessThan(LISTING.length() / 2);
+        assertThat(decode(new GZIPInputStream(new ByteArrayInputStream(response.body())))).isEqualTo(LISTING);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Compression - Zstd preferred")
+    public void testZstd() throws Exception {
+        HttpResponse<byte[]> response = this.get("/api/v1/users/register", "gzip, zstd");
+
+        assertThat(response.headers().firstValue("Content-Encoding")).contains("zstd");
+        assertThat(response.body().length).isLessThan(LISTING.length() / 2);
+        assertThat(decode(new ZstdInputStream(new ByteArrayInputStream(response.body())))).isEqualTo(LISTING);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Compression - Small response left as is")
+    public void testSmallResponse() throws Exception {
+        HttpResponse<byte[]> response = this.get("/api/v1/users/login", "gzip, zstd");
+
+        assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(new String(response.body(), StandardCharsets.UTF_8)).isEqualTo(SMALL);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Compression - Not accepted")
+    public void testNotAccepted() throws Exception {
+        HttpResponse<byte[]> response = this.get("/api/v1/users/register", "identity");
+
+        assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(new String(response.body(), StandardCharsets.UTF_8)).isEqualTo(LISTING);
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + path))
+            .header("Accept-Encoding", acceptEncoding)
+            .build();
+
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String decode(InputStream input) throws IOException {
+        try (input) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
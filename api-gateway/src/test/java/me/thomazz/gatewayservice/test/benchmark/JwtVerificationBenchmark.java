@@ -0,0 +1,125 @@
+package me.thomazz.gatewayservice.test.benchmark;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import me.thomazz.gatewayservice.jwt.HmacJwtVerifier;
+import me.thomazz.gatewayservice.jwt.TokenRevocationList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Compares verification cost per token for the signing options, run main() on the test classpath.
+// JJWT 0.11 has no EdDSA support, Ed25519 is measured as a raw JCA signature check only.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private final byte[] content = "eyJhbGciOiJFUzI1NiJ9.eyJpZCI6MSwic3ViIjoiMSJ9".getBytes(StandardCharsets.US_ASCII);
+
+    private HmacJwtVerifier hmacVerifier;
+    private JwtParser hmacParser;
+    private JwtParser ecParser;
+    private String hmacToken;
+    private String ecToken;
+    private KeyPair ecKeyPair;
+    private KeyPair edKeyPair;
+    private byte[] ecSignature;
+    private byte[] edSignature;
+
+    @Setup
+    public void setup() throws GeneralSecurityException {
+        SecretKey hmacKey = Keys.hmacShaKeyFor("EOwOOG2hds94sChfQqm92yQlahx02KOPPbVEw4SQuLY=".getBytes());
+        KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+        ecGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        this.ecKeyPair = ecGenerator.generateKeyPair();
+        this.edKeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+
+        this.hmacVerifier = new HmacJwtVerifier(hmacKey, new TokenRevocationList(1024, Clock.systemUTC()));
+        this.hmacParser = Jwts.parserBuilder().setSigningKey(hmacKey).build();
+        this.ecParser = Jwts.parserBuilder().setSigningKey(this.ecKeyPair.getPublic()).build();
+        this.hmacToken = this.token().signWith(hmacKey).compact();
+        this.ecToken = this.token().signWith(this.ecKeyPair.getPrivate(), SignatureAlgorithm.ES256).compact();
+
+        Signature ecSigner = Signature.getInstance("SHA256withECDSAinP1363Format");
+        ecSigner.initSign(this.ecKeyPair.getPrivate());
+        ecSigner.update(this.content);
+        this.ecSignature = ecSigner.sign();
+
+        Signature edSigner = Signature.getInstance("Ed25519");
+        edSigner.initSign(this.edKeyPair.getPrivate());
+        edSigner.update(this.content);
+        this.edSignature = edSigner.sign();
+    }
+
+    @Benchmark
+    public HmacJwtVerifier.Verification hs256FastPath() {
+        return this.hmacVerifier.verify(this.hmacToken, 0L);
+    }
+
+    @Benchmark
+    public Object hs256Jjwt() {
+        return this.hmacParser.parseClaimsJws(this.hmacToken).getBody();
+    }
+
+    @Benchmark
+    public Object es256Jjwt() {
+        return this.ecParser.parseClaimsJws(this.ecToken).getBody();
+    }
+
+    @Benchmark
+    public boolean es256Signature() throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance("SHA256withECDSAinP1363Format");
+        verifier.initVerify(this.ecKeyPair.getPublic());
+        verifier.update(this.content);
+        return verifier.verify(this.ecSignature);
+    }
+
+    @Benchmark
+    public boolean ed25519Signature() throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance("Ed25519");
+        verifier.initVerify(this.edKeyPair.getPublic());
+        verifier.update(this.content);
+        return verifier.verify(this.edSignature);
+    }
+
+    private JwtBuilder token() {
+        return Jwts.builder()
+            .setClaims(Map.of("id", 1L))
+            .setSubject("1")
+            .setExpiration(Date.from(Instant.now().plus(Duration.ofDays(1L))));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
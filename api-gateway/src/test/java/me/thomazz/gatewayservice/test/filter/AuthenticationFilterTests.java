@@ -1,9 +1,13 @@
 package me.thomazz.gatewayservice.test.filter;
 
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import me.thomazz.gatewayservice.configuration.ApiGatewayRoutePathConfigurationProperties;
 import me.thomazz.gatewayservice.filter.AuthenticationFilter;
+import me.thomazz.gatewayservice.identity.IdentityHeaderSigner;
+import me.thomazz.gatewayservice.jwt.JwksKeyCache;
+import me.thomazz.gatewayservice.jwt.TokenRevocationList;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
@@ -11,18 +15,26 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
@@ -32,6 +44,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -54,6 +68,12 @@ public class AuthenticationFilterTests {
     @Mock
     private GatewayFilterChain chain;
 
+    @Mock
+    private JwksKeyCache keyCache;
+
+    @Mock
+    private TokenRevocationList revocationList;
+
     private String jwtToken;
     private AuthenticationFilter authenticationFilter;
 
@@ -71,10 +91,14 @@ public class AuthenticationFilterTests {
         this.authenticationFilter = new AuthenticationFilter(
             this.clock,
             new ApiGatewayRoutePathConfigurationProperties(Collections.emptyList(), List.of("/test1")),
-            this.jwtSecret
+            this.keyCache,
+            this.revocationList,
+            this.jwtSecret,
+            ""
         );
 
         when(this.exchange.getRequest()).thenReturn(this.request);
+        when(this.request.getHeaders()).thenReturn(new HttpHeaders());
         when(this.exchange.getResponse()).thenReturn(this.response);
     }
 
@@ -115,4 +139,101 @@ public class AuthenticationFilterTests {
 
         verify(this.response, never()).setStatusCode(HttpStatus.UNAUTHORIZED);
     }
+
+    @Test
+    @Order(4)
+    @DisplayName("ES256 token - Valid with published key")
+    public void testEcdsaTokenValid() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+
+        String token = Jwts.builder()
+            .setHeaderParam("kid", "key-1")
+            .setClaims(Map.of("id", 1L))
+            .setSubject("1")
+            .setExpiration(Date.from(Instant.now(this.clock).plus(Duration.ofMinutes(15L))))
+            .signWith(keyPair.getPrivate(), SignatureAlgorithm.ES256)
+            .compact();
+
+        when(this.keyCache.getKey("key-1")).thenReturn(keyPair.getPublic());
+
+        assertThat(this.authenticationFilter.isExpired(token)).isFalse();
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("ES256 token - Unknown key")
+    public void testEcdsaTokenUnknownKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+
+        String token = Jwts.builder()
+            .setHeaderParam("kid", "key-2")
+            .setClaims(Map.of("id", 1L))
+            .setSubject("1")
+            .setExpiration(Date.from(Instant.now(this.clock).plus(Duration.ofMinutes(15L))))
+            .signWith(generator.generateKeyPair().getPrivate(), SignatureAlgorithm.ES256)
+            .compact();
+
+        assertThat(this.authenticationFilter.isExpired(token)).isTrue();
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Revoked token - Unauthorized")
+    public void testRevokedTokenUnauthorized() {
+        when(this.revocationList.isRevoked(1L, 0L)).thenReturn(true);
+
+        assertThat(this.authenticationFilter.isExpired(this.jwtToken)).isTrue();
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("Secured by filter - Forwards signed identity")
+    public void testForwardsSignedIdentity() {
+        AuthenticationFilter identityFilter = new AuthenticationFilter(
+            this.clock,
+            new ApiGatewayRoutePathConfigurationProperties(Collections.emptyList(), List.of("/test1")),
+            this.keyCache,
+            this.revocationList,
+            this.jwtSecret,
+            "identity-secret"
+        );
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/test2")
+                .header(IdentityHeaderSigner.IDENTITY_HEADER, "2.0.forged")
+                .cookie(new HttpCookie("spring_kube_infra_login_token", this.jwtToken), new HttpCookie("other", "value"))
+        );
+
+        ArgumentCaptor<ServerWebExchange> forwarded = ArgumentCaptor.forClass(ServerWebExchange.class);
+        when(this.chain.filter(any())).thenReturn(Mono.empty());
+
+        identityFilter.filter(exchange, this.chain).block();
+
+        verify(this.chain).filter(forwarded.capture());
+        HttpHeaders headers = forwarded.getValue().getRequest().getHeaders();
+
+        assertThat(headers.get(IdentityHeaderSigner.IDENTITY_HEADER))
+            .containsExactly(new IdentityHeaderSigner("identity-secret").sign(1L, 900L));
+        assertThat(headers.get(HttpHeaders.COOKIE)).containsExactly("other=value");
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Insecure - Strips client identity")
+    public void testInsecureStripsClientIdentity() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/test1").header(IdentityHeaderSigner.IDENTITY_HEADER, "1.0.forged")
+        );
+
+        ArgumentCaptor<ServerWebExchange> forwarded = ArgumentCaptor.forClass(ServerWebExchange.class);
+        when(this.chain.filter(any())).thenReturn(Mono.empty());
+
+        this.authenticationFilter.filter(exchange, this.chain).block();
+
+        verify(this.chain).filter(forwarded.capture());
+        assertThat(forwarded.getValue().getRequest().getHeaders().containsKey(IdentityHeaderSigner.IDENTITY_HEADER)).isFalse();
+    }
 }
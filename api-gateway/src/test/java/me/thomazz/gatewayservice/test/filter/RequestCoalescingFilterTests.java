@@ -0,0 +1,158 @@
+package me.thomazz.gatewayservice.test.filter;
+
+import me.thomazz.gatewayservice.configuration.ApiGatewayCoalescingConfigurationProperties;
+import me.thomazz.gatewayservice.filter.AuthenticationFilter;
+import me.thomazz.gatewayservice.filter.RequestCoalescingFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class RequestCoalescingFilterTests {
+    private static final String ETAG = "\"1\"";
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final GatewayFilterChain chain = exchange -> Mono.delay(Duration.ofMillis(100L))
+        .then(Mono.defer(() -> this.respond(exchange)));
+
+    private RequestCoalescingFilter coalescingFilter;
+
+    @BeforeEach
+    public void setup() {
+        this.upstreamCalls.set(0);
+        this.coalescingFilter = new RequestCoalescingFilter(
+            new ApiGatewayCoalescingConfigurationProperties(true, Duration.ofSeconds(2L), DataSize.ofKilobytes(256L))
+        );
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Concurrent identical requests - Coalesced")
+    public void testConcurrentIdenticalRequestsCoalesced() {
+        MockServerWebExchange first = this.exchange("/users/1", "token");
+        MockServerWebExchange second = this.exchange("/users/1", "token");
+
+        Mono.when(this.coalescingFilter.filter(first, this.chain), this.coalescingFilter.filter(second, this.chain))
+            .block(Duration.ofSeconds(5L));
+
+        assertThat(this.upstreamCalls).hasValue(1);
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("/users/1");
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo("/users/1");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Concurrent requests from different subjects - Not coalesced")
+    public void testConcurrentRequestsDifferentSubjectsNotCoalesced() {
+        Mono.when(
+            this.coalescingFilter.filter(this.exchange("/users/1", "token1"), this.chain),
+            this.coalescingFilter.filter(this.exchange("/users/1", "token2"), this.chain)
+        ).block(Duration.ofSeconds(5L));
+
+        assertThat(this.upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Waiting past maximum wait - Falls back to upstream")
+    public void testWaitingPastMaximumFallsBack() {
+        this.coalescingFilter = new RequestCoalescingFilter(
+            new ApiGatewayCoalescingConfigurationProperties(true, Duration.ofMillis(10L), DataSize.ofKilobytes(256L))
+        );
+
+        MockServerWebExchange second = this.exchange("/users/1", "token");
+
+        Mono.when(
+            this.coalescingFilter.filter(this.exchange("/users/1", "token"), this.chain),
+            this.coalescingFilter.filter(second, this.chain)
+        ).block(Duration.ofSeconds(5L));
+
+        assertThat(this.upstreamCalls).hasValue(2);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("/users/1");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Body over maximum size - Streamed, followers go upstream")
+    public void testBodyOverMaximumSizeStreamed() {
+        this.coalescingFilter = new RequestCoalescingFilter(
+            new ApiGatewayCoalescingConfigurationProperties(true, Duration.ofSeconds(2L), DataSize.ofBytes(5L))
+        );
+
+        MockServerWebExchange first = this.exchange("/users/1", "token");
+        MockServerWebExchange second = this.exchange("/users/1", "token");
+
+        Mono.when(this.coalescingFilter.filter(first, this.chain), this.coalescingFilter.filter(second, this.chain))
+            .block(Duration.ofSeconds(5L));
+
+        assertThat(this.upstreamCalls).hasValue(2);
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo("/users/1");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("/users/1");
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Concurrent conditional and plain requests - Not coalesced, 304 only for the conditional one")
+    public void testConcurrentConditionalAndPlainRequestsNotCoalesced() {
+        MockServerWebExchange conditional = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/users/1")
+                .cookie(new HttpCookie(AuthenticationFilter.TOKEN_COOKIE, "token"))
+                .ifNoneMatch(ETAG)
+        );
+        MockServerWebExchange plain = this.exchange("/users/1", "token");
+
+        Mono.when(this.coalescingFilter.filter(conditional, this.chain), this.coalescingFilter.filter(plain, this.chain))
+            .block(Duration.ofSeconds(5L));
+
+        assertThat(this.upstreamCalls).hasValue(2);
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(plain.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(plain.getResponse().getBodyAsString().block()).isEqualTo("/users/1");
+    }
+
+    private MockServerWebExchange exchange(String path, String token) {
+        return MockServerWebExchange.from(
+            MockServerHttpRequest.get(path).cookie(new HttpCookie(AuthenticationFilter.TOKEN_COOKIE, token))
+        );
+    }
+
+    private Mono<Void> respond(ServerWebExchange exchange) {
+        this.upstreamCalls.incrementAndGet();
+
+        if (exchange.getRequest().getHeaders().getIfNoneMatch().contains(ETAG)) {
+            exchange.getResponse().setStatusCode(HttpStatus.NOT_MODIFIED);
+            return exchange.getResponse().setComplete();
+        }
+
+        byte[] body = exchange.getRequest().getURI().getPath().getBytes(StandardCharsets.UTF_8);
+        DataBufferFactory buffers = exchange.getResponse().bufferFactory();
+        int half = body.length / 2;
+
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return exchange.getResponse().writeWith(Flux.just( // Two chunks, as the upstream client hands them over
+            buffers.wrap(Arrays.copyOfRange(body, 0, half)),
+            buffers.wrap(Arrays.copyOfRange(body, half, body.length))
+        ));
+    }
+}
@@ -0,0 +1,41 @@
+package me.thomazz.gatewayservice.test.jwt;
+
+import me.thomazz.gatewayservice.jwt.CountingBloomFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class CountingBloomFilterTests {
+    @Test
+    @Order(1)
+    @DisplayName("Added values - No false negatives")
+    public void testNoFalseNegatives() {
+        CountingBloomFilter filter = new CountingBloomFilter(1 << 16);
+
+        LongStream.range(0L, 1000L).forEach(filter::add);
+
+        assertThat(LongStream.range(0L, 1000L).allMatch(filter::mightContain)).isTrue();
+        assertThat(LongStream.range(1000L, 11000L).filter(filter::mightContain).count()).isLessThan(100L);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Removed values - Absent")
+    public void testRemove() {
+        CountingBloomFilter filter = new CountingBloomFilter(1 << 16);
+
+        filter.add(1L);
+        filter.add(2L);
+        filter.remove(1L);
+
+        assertThat(filter.mightContain(1L)).isFalse();
+        assertThat(filter.mightContain(2L)).isTrue();
+    }
+}
@@ -0,0 +1,107 @@
+package me.thomazz.gatewayservice.test.jwt;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import me.thomazz.gatewayservice.jwt.HmacJwtVerifier;
+import me.thomazz.gatewayservice.jwt.TokenRevocationList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class HmacJwtVerifierTests {
+    private final Clock clock = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+    private final SecretKey key = Keys.hmacShaKeyFor("EOwOOG2hds94sChfQqm92yQlahx02KOPPbVEw4SQuLY=".getBytes());
+    private final TokenRevocationList revocationList = new TokenRevocationList(1024, this.clock);
+    private final HmacJwtVerifier verifier = new HmacJwtVerifier(this.key, this.revocationList);
+
+    @Test
+    @Order(1)
+    @DisplayName("Verify token - Valid")
+    public void testVerifyValid() {
+        String token = this.builder().compact();
+
+        assertThat(this.verifier.verify(token, this.clock.millis()).result()).isEqualTo(HmacJwtVerifier.Result.VALID);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Verify token - Expired")
+    public void testVerifyExpired() {
+        String token = this.builder().compact();
+        long later = this.clock.instant().plus(Duration.ofMinutes(16L)).toEpochMilli();
+
+        assertThat(this.verifier.verify(token, later).result()).isEqualTo(HmacJwtVerifier.Result.EXPIRED);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Verify token - Invalid signature")
+    public void testVerifyInvalidSignature() {
+        String token = this.builder().compact();
+        String otherToken = this.builder()
+            .signWith(Keys.hmacShaKeyFor("QZiS4/mo/zmH8X90pTL5WQ9z5ogDmCILLiZfmcyPug4=".getBytes()))
+            .compact();
+        String tampered = token.substring(0, token.lastIndexOf('.')) + otherToken.substring(otherToken.lastIndexOf('.'));
+
+        assertThat(this.verifier.verify(otherToken, this.clock.millis()).result()).isEqualTo(HmacJwtVerifier.Result.INVALID);
+        assertThat(this.verifier.verify(tampered, this.clock.millis()).result()).isEqualTo(HmacJwtVerifier.Result.INVALID);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Verify token - Malformed")
+    public void testVerifyMalformed() {
+        String header = this.builder().compact().substring(0, 20);
+
+        assertThat(this.verifier.verify("token", this.clock.millis()).result()).isEqualTo(HmacJwtVerifier.Result.INVALID);
+        assertThat(this.verifier.verify("a.b.c.d", this.clock.millis()).result()).isEqualTo(HmacJwtVerifier.Result.INVALID);
+        assertThat(this.verifier.verify(header + ".*.*", this.clock.millis()).result()).isEqualTo(HmacJwtVerifier.Result.INVALID);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Verify token - Unsupported header")
+    public void testVerifyUnsupportedHeader() {
+        String token = this.builder().setHeaderParam("typ", "JWT").compact();
+
+        assertThat(this.verifier.verify(token, this.clock.millis()).result()).isEqualTo(HmacJwtVerifier.Result.UNSUPPORTED);
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Verify token - Revoked")
+    public void testVerifyRevoked() {
+        String token = this.builder().compact();
+        long issuedAt = this.clock.instant().getEpochSecond();
+
+        this.revocationList.add(2L, issuedAt, issuedAt + 900L);
+        assertThat(this.verifier.verify(token, this.clock.millis()).result()).isEqualTo(HmacJwtVerifier.Result.VALID);
+
+        this.revocationList.add(1L, issuedAt, issuedAt + 900L);
+        assertThat(this.verifier.verify(token, this.clock.millis()).result()).isEqualTo(HmacJwtVerifier.Result.REVOKED);
+    }
+
+    private JwtBuilder builder() {
+        long userId = 1L;
+        return Jwts.builder()
+            .setClaims(Map.of("id", userId))
+            .setSubject(Long.toString(userId))
+            .setIssuedAt(Date.from(this.clock.instant()))
+            .setExpiration(Date.from(Instant.now(this.clock).plus(Duration.ofMinutes(15L))))
+            .signWith(this.key);
+    }
+}
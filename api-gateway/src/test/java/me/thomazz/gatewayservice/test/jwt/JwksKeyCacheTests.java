@@ -0,0 +1,92 @@
+package me.thomazz.gatewayservice.test.jwt;
+
+import me.thomazz.gatewayservice.jwt.JwksKeyCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class JwksKeyCacheTests {
+    private final Clock clock = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private ECPublicKey publicKey;
+    private JwksKeyCache keyCache;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+        this.publicKey = (ECPublicKey) keyPair.getPublic();
+
+        String jwks = "{\"keys\":[{\"kty\":\"EC\",\"crv\":\"P-256\",\"kid\":\"key-1\","
+            + "\"x\":\"" + this.encode(this.publicKey.getW().getAffineX()) + "\","
+            + "\"y\":\"" + this.encode(this.publicKey.getW().getAffineY()) + "\"},"
+            + "{\"kty\":\"RSA\",\"kid\":\"key-2\"}]}";
+
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            this.fetches.incrementAndGet();
+            return Mono.just(
+                ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(jwks)
+                    .build()
+            );
+        });
+
+        this.keyCache = new JwksKeyCache(builder, "http://localhost/.well-known/jwks.json", Duration.ofMinutes(5L), Duration.ofSeconds(10L), this.clock);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Refresh loads published keys")
+    public void testRefreshLoadsKeys() {
+        this.keyCache.refresh().block();
+
+        assertThat(this.keyCache.getKey("key-1")).isEqualTo(this.publicKey);
+        assertThat(this.keyCache.getKey("key-2")).isNull(); // Unsupported key types are skipped
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Unknown key refresh is rate limited")
+    public void testUnknownKeyRefreshRateLimited() {
+        this.keyCache.refresh().block();
+
+        this.keyCache.getKey("key-3");
+        this.keyCache.getKey("key-3");
+
+        assertThat(this.fetches).hasValue(1);
+    }
+
+    private String encode(BigInteger coordinate) {
+        byte[] bytes = coordinate.toByteArray();
+        byte[] padded = Arrays.copyOfRange(bytes, bytes.length - 32, bytes.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+    }
+}
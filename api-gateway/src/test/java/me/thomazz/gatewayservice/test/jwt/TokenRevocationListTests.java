@@ -0,0 +1,46 @@
+package me.thomazz.gatewayservice.test.jwt;
+
+import me.thomazz.gatewayservice.jwt.TokenRevocationList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class TokenRevocationListTests {
+    @Test
+    @Order(1)
+    @DisplayName("Revoked subject - Tokens issued before revocation")
+    public void testRevokedSubject() {
+        TokenRevocationList revocationList = new TokenRevocationList(1024, Clock.fixed(Instant.EPOCH, ZoneOffset.UTC));
+
+        revocationList.add(1L, 100L, 1000L);
+
+        assertThat(revocationList.isRevoked(1L, 99L)).isTrue();
+        assertThat(revocationList.isRevoked(1L, 100L)).isTrue();
+        assertThat(revocationList.isRevoked(1L, 101L)).isFalse();
+        assertThat(revocationList.isRevoked(2L, 99L)).isFalse();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Purge - Drops entries after their tokens expire")
+    public void testPurgeExpired() {
+        TokenRevocationList revocationList = new TokenRevocationList(1024, Clock.fixed(Instant.ofEpochSecond(500L), ZoneOffset.UTC));
+
+        revocationList.add(1L, 100L, 400L);
+        revocationList.add(2L, 100L, 1000L);
+        revocationList.purgeExpired();
+
+        assertThat(revocationList.size()).isEqualTo(1);
+        assertThat(revocationList.isRevoked(1L, 99L)).isFalse();
+        assertThat(revocationList.isRevoked(2L, 99L)).isTrue();
+    }
+}
@@ -0,0 +1,138 @@
+package me.thomazz.gatewayservice.test.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.sun.net.httpserver.HttpServer;
+import me.thomazz.gatewayservice.jwt.TokenRevocationList;
+import me.thomazz.gatewayservice.jwt.TokenRevocationPoller;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class TokenRevocationPollerTests {
+    private static final int PAGE_SIZE = 2;
+
+    private final Clock clock = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+    private final TokenRevocationList revocationList = new TokenRevocationList(1024, this.clock);
+    private final List<Long> afters = new CopyOnWriteArrayList<>();
+    private List<Map<String, Long>> revocations = List.of(revocation(1L, 1L));
+    private HttpServer server;
+    private String acceptHeader;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.server.stop(0);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Poll - Smile response")
+    public void testPollSmile() {
+        this.respondWith(new SmileMapper(), "application/x-jackson-smile");
+
+        this.poller().poll().block(Duration.ofSeconds(5L));
+
+        assertThat(this.acceptHeader).startsWith("application/x-jackson-smile");
+        assertThat(this.revocationList.isRevoked(1L, 99L)).isTrue();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Poll - JSON response from a service without Smile")
+    public void testPollJson() {
+        this.respondWith(new ObjectMapper(), "application/json");
+
+        this.poller().poll().block(Duration.ofSeconds(5L));
+
+        assertThat(this.revocationList.isRevoked(1L, 99L)).isTrue();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Poll - Lower id committed after a higher one was polled")
+    public void testPollLateCommit() {
+        this.respondWith(new ObjectMapper(), "application/json");
+        TokenRevocationPoller poller = this.poller();
+
+        this.revocations = List.of(revocation(2L, 2L));
+        poller.poll().block(Duration.ofSeconds(5L));
+
+        this.revocations = List.of(revocation(1L, 1L), revocation(2L, 2L));
+        poller.poll().block(Duration.ofSeconds(5L));
+
+        assertThat(this.afters).containsExactly(0L, 0L, 2L); // Within the lookback, polled again from the checkpoint
+        assertThat(this.revocationList.isRevoked(1L, 99L)).isTrue();
+        assertThat(this.revocationList.size()).isEqualTo(2);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Poll - Full pages followed by the next")
+    public void testPollPages() {
+        this.respondWith(new ObjectMapper(), "application/json");
+        this.revocations = List.of(revocation(1L, 1L), revocation(2L, 2L), revocation(3L, 3L));
+
+        this.poller().poll().block(Duration.ofSeconds(5L));
+
+        assertThat(this.afters).containsExactly(0L, 2L);
+        assertThat(this.revocationList.size()).isEqualTo(3);
+    }
+
+    private void respondWith(ObjectMapper mapper, String contentType) {
+        this.server.createContext("/", exchange -> {
+            long after = Long.parseLong(exchange.getRequestURI().getQuery().substring("after=".length()));
+            List<Map<String, Long>> page = this.revocations.stream()
+                .filter(revocation -> revocation.get("id") > after)
+                .limit(PAGE_SIZE)
+                .toList();
+            byte[] body = mapper.writeValueAsBytes(page);
+
+            this.afters.add(after);
+            this.acceptHeader = exchange.getRequestHeaders().getFirst("Accept");
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+    }
+
+    private TokenRevocationPoller poller() {
+        return new TokenRevocationPoller(
+            WebClient.builder(),
+            this.revocationList,
+            "http://localhost:" + this.server.getAddress().getPort() + "/internal/v1/revocations",
+            Duration.ofSeconds(5L),
+            Duration.ofSeconds(30L),
+            PAGE_SIZE,
+            this.clock
+        );
+    }
+
+    private static Map<String, Long> revocation(long id, long subject) {
+        return Map.of("id", id, "subject", subject, "revokedAt", 100L, "expiresAt", 1000L);
+    }
+}
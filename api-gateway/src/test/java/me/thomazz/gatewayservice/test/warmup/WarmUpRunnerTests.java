@@ -0,0 +1,98 @@
+package me.thomazz.gatewayservice.test.warmup;
+
+import me.thomazz.gatewayservice.ApiGatewayApplication;
+import me.thomazz.gatewayservice.configuration.ApiGatewayConfiguration;
+import me.thomazz.gatewayservice.test.configuration.ApiGatewayTestConfiguration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static me.thomazz.gatewayservice.identity.IdentityHeaderSigner.IDENTITY_HEADER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The warm-up goes through the gateway to a stand-in user service before the gateway reports ready
+@SpringBootTest(
+    classes = {
+        ApiGatewayApplication.class,
+        ApiGatewayConfiguration.class,
+        ApiGatewayTestConfiguration.class,
+        WarmUpRunnerTests.ReadinessRecorder.class
+    },
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "warm-up.iterations=3"
+)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class WarmUpRunnerTests {
+    private static final List<String> FORWARDED = new CopyOnWriteArrayList<>();
+    private static final DisposableServer BACKEND = HttpServer.create()
+        .port(0)
+        .handle((request, response) -> {
+            if (request.uri().startsWith("/api/v1/users/")) {
+                FORWARDED.add(request.uri() + (request.requestHeaders().contains(IDENTITY_HEADER) ? " identified" : ""));
+            }
+            return response.status(404).send();
+        })
+        .bindNow();
+
+    @Autowired
+    private ReadinessRecorder recorder;
+
+    @DynamicPropertySource
+    public static void properties(DynamicPropertyRegistry registry) {
+        registry.add("service.user-service-uri", () -> "http://localhost:" + BACKEND.port());
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        BACKEND.disposeNow();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Warm up - Authenticated and public routes forwarded before accepting traffic")
+    public void testWarmUpForwardedBeforeReady() {
+        assertThat(this.recorder.forwardedWhenReady)
+            .filteredOn(uri -> uri.equals("/api/v1/users/me identified"))
+            .hasSize(3);
+        assertThat(this.recorder.forwardedWhenReady)
+            .filteredOn(uri -> uri.equals("/api/v1/users/refresh"))
+            .hasSize(3);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Warm up - Rejected requests never reach the user service")
+    public void testWarmUpRejectionsNotForwarded() {
+        assertThat(this.recorder.forwardedWhenReady)
+            .containsOnly("/api/v1/users/me identified", "/api/v1/users/refresh");
+    }
+
+    // Copies what the stand-in user service received at the moment readiness switches to ACCEPTING_TRAFFIC
+    @TestConfiguration
+    public static class ReadinessRecorder {
+        private volatile List<String> forwardedWhenReady = List.of();
+
+        @EventListener
+        public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+            if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                this.forwardedWhenReady = List.copyOf(FORWARDED);
+            }
+        }
+    }
+}
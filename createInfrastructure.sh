@@ -4,7 +4,7 @@ prefix="[createInfrastructure]"
 echo "${prefix} Building modules..."
 echo
 
-mvn clean install
+mvn clean install -Paot
 
 echo
 echo "${prefix} Setting up docker images..."
@@ -0,0 +1,82 @@
+package me.thomazz.userservice.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import me.thomazz.userservice.jdbc.ReadWriteRoutingDataSource;
+import me.thomazz.userservice.jdbc.SlowAcquireMetricsTrackerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Configuration
+public class UserDataSourceConfiguration {
+    // Static so it is registered before the data source is created
+    @Bean
+    public static BeanPostProcessor dataSourcePoolCustomizer(
+        @Value("${datasource.pool.size:0}") int size,
+        @Value("${datasource.pool.database-max-connections:100}") int databaseMaxConnections,
+        @Value("${datasource.pool.reserved-connections:10}") int reservedConnections,
+        @Value("${datasource.pool.instances:1}") int instances,
+        @Value("${datasource.pool.slow-acquire-threshold:PT0.1S}") Duration slowAcquireThreshold
+    ) {
+        int poolSize = size > 0
+            ? size
+            : poolSize(Runtime.getRuntime().availableProcessors(), databaseMaxConnections, reservedConnections, instances);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMaximumPoolSize(poolSize);
+                    dataSource.setMinimumIdle(poolSize); // Fixed size, bursts do not pay for opening connections
+                    dataSource.setMetricsTrackerFactory(new SlowAcquireMetricsTrackerFactory(slowAcquireThreshold));
+                }
+
+                return bean;
+            }
+        };
+    }
+
+    // Replicas share the primary's pool settings and credentials, without replicas every query goes to the primary
+    @Bean
+    public static BeanPostProcessor dataSourceReplicaRouter(@Value("${datasource.replicas:}") String replicas) {
+        List<String> replicaUrls = Arrays.stream(StringUtils.commaDelimitedListToStringArray(replicas))
+            .map(String::trim)
+            .filter(url -> !url.isEmpty())
+            .toList();
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource primary) || replicaUrls.isEmpty()) {
+                    return bean;
+                }
+
+                List<DataSource> replicas = new ArrayList<>();
+                for (String url : replicaUrls) {
+                    HikariDataSource replica = new HikariDataSource(); // Starts on first use, like the primary
+                    primary.copyStateTo(replica);
+                    replica.setJdbcUrl(url);
+                    replica.setPoolName("UserReplicaPool-" + replicas.size());
+                    replicas.add(replica);
+                }
+
+                return new ReadWriteRoutingDataSource(primary, replicas);
+            }
+        };
+    }
+
+    // Two connections per core keep the database busy while others wait on IO,
+    // capped by this instance's share of the connections the database accepts
+    public static int poolSize(int cores, int databaseMaxConnections, int reservedConnections, int instances) {
+        int share = (databaseMaxConnections - reservedConnections) / Math.max(instances, 1);
+        return Math.max(Math.min(cores * 2 + 1, share), 1);
+    }
+}
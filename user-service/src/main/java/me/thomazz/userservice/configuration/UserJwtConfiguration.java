@@ -0,0 +1,25 @@
+package me.thomazz.userservice.configuration;
+
+import me.thomazz.userservice.jwt.EcJwtSigner;
+import me.thomazz.userservice.jwt.HmacJwtSigner;
+import me.thomazz.userservice.jwt.JwtKeyRing;
+import me.thomazz.userservice.jwt.JwtSigner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class UserJwtConfiguration {
+    @Bean
+    public JwtSigner jwtSigner(
+        @Value("${jwt.signing.algorithm:HMAC}") String algorithm,
+        @Value("${jwt.secret:}") String secret,
+        JwtKeyRing keyRing
+    ) {
+        return switch (algorithm) {
+            case "HMAC" -> new HmacJwtSigner(secret);
+            case "ES256" -> new EcJwtSigner(keyRing.getActiveKey());
+            default -> throw new IllegalArgumentException("Unsupported signing algorithm " + algorithm);
+        };
+    }
+}
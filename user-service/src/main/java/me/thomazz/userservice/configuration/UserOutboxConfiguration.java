@@ -0,0 +1,29 @@
+package me.thomazz.userservice.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.thomazz.userservice.outbox.FileUserEventSink;
+import me.thomazz.userservice.outbox.InMemoryUserEventSink;
+import me.thomazz.userservice.outbox.LoggingUserEventSink;
+import me.thomazz.userservice.outbox.UserEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class UserOutboxConfiguration {
+    @Bean
+    public UserEventSink userEventSink(
+        @Value("${outbox.sink.type:log}") String type,
+        @Value("${outbox.sink.file:}") String file,
+        ObjectMapper mapper
+    ) {
+        return switch (type) {
+            case "log" -> new LoggingUserEventSink();
+            case "file" -> new FileUserEventSink(Path.of(file), mapper);
+            case "memory" -> new InMemoryUserEventSink();
+            default -> throw new IllegalArgumentException("Unsupported user event sink " + type);
+        };
+    }
+}
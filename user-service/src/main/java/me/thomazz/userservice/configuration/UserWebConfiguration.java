@@ -0,0 +1,28 @@
+package me.thomazz.userservice.configuration;
+
+import me.thomazz.userservice.identity.UserIdentityArgumentResolver;
+import me.thomazz.userservice.login.ClientAddressArgumentResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Clock;
+import java.util.List;
+
+@Configuration
+public class UserWebConfiguration implements WebMvcConfigurer {
+    private final UserIdentityArgumentResolver identityResolver;
+
+    @Autowired
+    public UserWebConfiguration(@Value("${identity.secret:}") String identitySecret, Clock clock) {
+        this.identityResolver = new UserIdentityArgumentResolver(identitySecret, clock);
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(this.identityResolver);
+        resolvers.add(new ClientAddressArgumentResolver());
+    }
+}
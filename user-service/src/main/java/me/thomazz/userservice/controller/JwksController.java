@@ -0,0 +1,25 @@
+package me.thomazz.userservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import me.thomazz.userservice.jwt.JwtKeyRing;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+    private final JwtKeyRing keyRing;
+
+    // Not routed by the gateway, fetched by it directly from the service
+    @GetMapping(".well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5L)))
+            .body(this.keyRing.getJwks());
+    }
+}
@@ -0,0 +1,24 @@
+package me.thomazz.userservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import me.thomazz.userservice.dto.TokenRevocationDto;
+import me.thomazz.userservice.service.TokenRevocationService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Not routed by the gateway, polled by it directly from the service
+@RestController
+@RequestMapping("internal/v1/revocations")
+@RequiredArgsConstructor
+public class TokenRevocationController {
+    private final TokenRevocationService service;
+
+    @GetMapping
+    public List<TokenRevocationDto> getRevocations(@RequestParam(defaultValue = "0") long after) {
+        return this.service.getRevocations(after);
+    }
+}
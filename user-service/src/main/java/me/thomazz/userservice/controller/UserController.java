@@ -2,21 +2,36 @@ package me.thomazz.userservice.controller;
 
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import me.thomazz.userservice.dto.StreamedList;
 import me.thomazz.userservice.dto.UserByIdRequest;
 import me.thomazz.userservice.dto.UserDeleteByIdRequest;
 import me.thomazz.userservice.dto.UserDto;
 import me.thomazz.userservice.dto.UserGetAllRequest;
 import me.thomazz.userservice.dto.UserLoginRequest;
 import me.thomazz.userservice.dto.UserRegisterRequest;
+import me.thomazz.userservice.dto.UserRevalidateRequest;
+import me.thomazz.userservice.dto.UserRevalidationDto;
+import me.thomazz.userservice.dto.UserTokensDto;
+import me.thomazz.userservice.exception.UserSearchInvalidException;
+import me.thomazz.userservice.identity.UserIdentity;
+import me.thomazz.userservice.login.ClientAddress;
+import me.thomazz.userservice.service.UserSearchPage;
+import me.thomazz.userservice.service.UserSearchService;
 import me.thomazz.userservice.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Duration;
@@ -24,13 +39,45 @@ import java.util.List;
 
 @RestController
 @RequestMapping("api/v1/users")
-@RequiredArgsConstructor
 public class UserController {
+    public static final String TOKEN_COOKIE = "spring_kube_infra_login_token";
+    public static final String REFRESH_COOKIE = "spring_kube_infra_refresh_token";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String REFRESH_PATH = "/api/v1/users/refresh";
+
     private final UserService service;
+    private final UserSearchService searchService;
+    private final Duration refreshExpiration;
+
+    @Autowired
+    public UserController(
+        UserService service,
+        UserSearchService searchService,
+        @Value("${jwt.refresh-token.expiration}") String refreshExpiration
+    ) {
+        this.service = service;
+        this.searchService = searchService;
+        this.refreshExpiration = Duration.parse(refreshExpiration);
+    }
 
+    // Checked before the response starts, the users are then read in chunks while they are written out
     @GetMapping
-    public List<UserDto> getAllUsers(@RequestBody UserGetAllRequest request) {
-        return this.service.getAllUsers(PageRequest.of(request.getPageNumber(), request.getPageSize()));
+    public StreamedList<UserDto> getAllUsers(@RequestBody UserGetAllRequest request) {
+        Pageable pageable = PageRequest.of(request.getPageNumber(), request.getPageSize());
+        this.service.checkPageSize(pageable);
+
+        return action -> this.service.forEachUserChunk(pageable, action);
+    }
+
+    // Keyed by the URL alone, unlike the request body variant above, so caches and the gateway can key it
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<UserDto>> getUsers(@RequestParam int limit, @RequestParam(defaultValue = "0") long after) {
+        List<UserDto> users = this.service.getUsersAfter(after, limit);
+
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .eTag(UserETags.of(users))
+            .body(users);
     }
 
     @GetMapping("id")
@@ -38,6 +85,52 @@ public class UserController {
         return this.service.getUserById(request.getId());
     }
 
+    // A matching If-None-Match is answered with 304 Not Modified before the body is written
+    @GetMapping("{id}")
+    public ResponseEntity<UserDto> getUser(@PathVariable long id) {
+        UserDto user = this.service.getUserById(id);
+
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .eTag(UserETags.of(user))
+            .body(user);
+    }
+
+    @GetMapping("me")
+    public UserDto getCurrentUser(UserIdentity identity) {
+        return this.service.getUserById(identity.id());
+    }
+
+    @GetMapping("search")
+    public List<UserDto> searchUsers(
+        @RequestParam(required = false) String prefix,
+        @RequestParam(required = false) String query,
+        @RequestParam(defaultValue = "20") int limit,
+        @RequestParam(required = false) String after,
+        HttpServletResponse response
+    ) {
+        if (prefix != null && !prefix.isEmpty()) {
+            UserSearchPage page = this.searchService.searchByPrefix(prefix, limit, after);
+            if (page.next() != null) {
+                response.setHeader(NEXT_CURSOR_HEADER, page.next());
+            }
+
+            return page.users();
+        }
+
+        if (query != null && !query.isEmpty()) {
+            return this.searchService.searchFuzzy(query, limit);
+        }
+
+        throw new UserSearchInvalidException();
+    }
+
+    // Clients holding many users send their (id, version) pairs and only get back what changed
+    @PostMapping("revalidate")
+    public UserRevalidationDto revalidateUsers(@RequestBody UserRevalidateRequest request) {
+        return this.service.revalidateUsers(request.getUsers() == null ? List.of() : request.getUsers());
+    }
+
     @PostMapping("register")
     public void registerUser(@RequestBody UserRegisterRequest request) {
         this.service.registerUser(request.getUsername(), request.getPassword());
@@ -49,16 +142,35 @@ public class UserController {
     }
 
     @PostMapping("login")
-    public ResponseEntity<?> loginUser(@RequestBody UserLoginRequest loginRequest, HttpServletResponse response) {
-        String token = this.service.loginUser(loginRequest.getUsername(), loginRequest.getPassword());
+    public ResponseEntity<?> loginUser(@RequestBody UserLoginRequest loginRequest, ClientAddress address, HttpServletResponse response) {
+        UserTokensDto tokens = this.service.loginUser(loginRequest.getUsername(), loginRequest.getPassword(), address.value());
+
+        this.addCookies(tokens, response);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("refresh")
+    public ResponseEntity<?> refreshUser(@CookieValue(REFRESH_COOKIE) String refreshToken, HttpServletResponse response) {
+        UserTokensDto tokens = this.service.refreshUser(refreshToken);
 
-        Cookie cookie = new Cookie("spring_kube_infra_login_token", token);
+        this.addCookies(tokens, response);
+        return ResponseEntity.ok().build();
+    }
+
+    private void addCookies(UserTokensDto tokens, HttpServletResponse response) {
+        Cookie cookie = new Cookie(TOKEN_COOKIE, tokens.getAccessToken());
         cookie.setHttpOnly(true);
         cookie.setMaxAge((int) Duration.ofMinutes(15L).toSeconds()); // Cookie expires in 15 minutes
 
+        // Only sent to the refresh endpoint, so it does not travel along with every request
+        Cookie refreshCookie = new Cookie(REFRESH_COOKIE, tokens.getRefreshToken());
+        refreshCookie.setHttpOnly(true);
+        refreshCookie.setPath(REFRESH_PATH);
+        refreshCookie.setMaxAge((int) this.refreshExpiration.toSeconds());
+
         // cookie.setSecure(true); // Enable this when using HTTPS
 
         response.addCookie(cookie);
-        return ResponseEntity.ok().build();
+        response.addCookie(refreshCookie);
     }
 }
@@ -0,0 +1,27 @@
+package me.thomazz.userservice.controller;
+
+import me.thomazz.userservice.dto.UserDto;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Built from ids and row versions only, a matching If-None-Match skips serializing the body.
+// Ids are never reused, so a deleted and registered again username gets a different tag.
+final class UserETags {
+    private UserETags() {
+    }
+
+    static String of(UserDto user) {
+        return user.getId() + "." + user.getVersion();
+    }
+
+    static String of(List<UserDto> users) {
+        StringBuilder builder = new StringBuilder();
+        for (UserDto user : users) {
+            builder.append(user.getId()).append('.').append(user.getVersion()).append(',');
+        }
+
+        return DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
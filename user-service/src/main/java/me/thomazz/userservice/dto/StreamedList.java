@@ -0,0 +1,43 @@
+package me.thomazz.userservice.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Serialized as one array while the chunks are produced, in every content type Jackson negotiates. The generator is
+// flushed after each chunk, so it is written out before the next one is read.
+@FunctionalInterface
+public interface StreamedList<T> extends JsonSerializable {
+    void forEachChunk(Consumer<? super List<T>> action);
+
+    @Override
+    default void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartArray();
+        try {
+            this.forEachChunk(chunk -> {
+                try {
+                    for (T element : chunk) {
+                        provider.defaultSerializeValue(element, generator);
+                    }
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.writeEndArray();
+    }
+
+    @Override
+    default void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+        this.serialize(generator, provider);
+    }
+}
@@ -0,0 +1,17 @@
+package me.thomazz.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocationDto {
+    private long id;
+    private long subject;
+    private long revokedAt; // Epoch seconds, tokens issued at or before this are revoked
+    private long expiresAt; // Epoch seconds, no token covered by this entry outlives it
+}
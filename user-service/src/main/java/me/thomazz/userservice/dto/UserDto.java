@@ -12,4 +12,10 @@ import lombok.NoArgsConstructor;
 public class UserDto {
     private long id;
     private String username;
+    private long version;
+
+    // A user that was never updated
+    public UserDto(long id, String username) {
+        this(id, username, 0L);
+    }
 }
@@ -0,0 +1,21 @@
+package me.thomazz.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import me.thomazz.userservice.entities.UserEventType;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserEventDto {
+    private long id; // Unique but not in commit order
+    private UserEventType type;
+    private long userId;
+    private String username;
+    private long version; // Per user, consumers apply an event only when it is higher than the version they hold
+    private long occurredAt; // Epoch milliseconds
+    private long createdAt; // Epoch milliseconds, right before the change committed
+}
@@ -0,0 +1,16 @@
+package me.thomazz.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRevalidateRequest {
+    private List<UserVersionDto> users;
+}
@@ -0,0 +1,15 @@
+package me.thomazz.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTokensDto {
+    private String accessToken;
+    private String refreshToken;
+}
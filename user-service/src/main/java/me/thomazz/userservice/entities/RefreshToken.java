@@ -0,0 +1,36 @@
+package me.thomazz.userservice.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Kept narrow since every refresh deletes a row and inserts one
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+    name = "refresh_tokens",
+    indexes = {
+        @Index(name = "refresh_token_user_id_index", columnList = "userId"),
+        @Index(name = "refresh_token_expires_at_index", columnList = "expiresAt"),
+    }
+)
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private long userId;
+    private byte[] secretHash; // SHA-256, the secret itself is only known to the client
+    private Instant expiresAt;
+}
@@ -1,27 +1,38 @@
 package me.thomazz.userservice.entities;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.PrimaryKeyJoinColumn;
+import jakarta.persistence.SecondaryTable;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(
-    name = "users",
-    indexes = {
-        @Index(name = "user_username_index", columnList = "username", unique = true),
-    }
+@Table(name = "users")
+// The users table is hash partitioned on id in Postgres, which cannot enforce a unique username across partitions.
+// The username is copied into the narrow usernames table keyed by user id, whose unique index is global.
+@SecondaryTable(
+    name = "usernames",
+    pkJoinColumns = @PrimaryKeyJoinColumn(name = "user_id"),
+    indexes = @Index(name = "username_index", columnList = "username", unique = true)
 )
 public class User {
     @Id
@@ -29,4 +40,21 @@ public class User {
     private Long id;
     private String username;
     private String password;
+
+    @Version // Incremented on every update, the ETag of the user
+    private long version;
+
+    @Column(insertable = false, updatable = false) // Generated by the database
+    private String usernameLower;
+
+    @Column(table = "usernames", name = "username", nullable = false)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private String reservedUsername;
+
+    @PrePersist
+    @PreUpdate
+    private void reserveUsername() {
+        this.reservedUsername = this.username;
+    }
 }
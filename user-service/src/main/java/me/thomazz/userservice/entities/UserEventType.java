@@ -0,0 +1,7 @@
+package me.thomazz.userservice.entities;
+
+public enum UserEventType {
+    REGISTERED,
+    DELETED,
+    LOGGED_IN
+}
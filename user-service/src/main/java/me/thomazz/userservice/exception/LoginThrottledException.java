@@ -0,0 +1,8 @@
+package me.thomazz.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS, reason = "Too many failed logins, try again later")
+public class LoginThrottledException extends RuntimeException {
+}
@@ -0,0 +1,8 @@
+package me.thomazz.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNAUTHORIZED, reason = "Invalid refresh token")
+public class RefreshTokenInvalidException extends RuntimeException {
+}
@@ -0,0 +1,8 @@
+package me.thomazz.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Search needs either a prefix or a query")
+public class UserSearchInvalidException extends RuntimeException {
+}
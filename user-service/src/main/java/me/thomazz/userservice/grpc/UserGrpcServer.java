@@ -0,0 +1,106 @@
+package me.thomazz.userservice.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Plaintext gRPC on its own port, in cluster traffic only. With an in-process name nothing is bound,
+// clients in the same JVM connect by that name instead.
+@Slf4j
+@Component
+public class UserGrpcServer implements SmartLifecycle {
+    private final Server server;
+    private final Duration shutdownTimeout;
+    private volatile boolean running;
+
+    @Autowired
+    public UserGrpcServer(
+        List<BindableService> services,
+        @Value("${grpc.server.port:9090}") int port,
+        @Value("${grpc.server.in-process-name:}") String inProcessName,
+        @Value("${grpc.server.flow-control-window:1MB}") DataSize flowControlWindow,
+        @Value("${grpc.server.max-inbound-message-size:4MB}") DataSize maxInboundMessageSize,
+        @Value("${grpc.server.max-connection-age:PT5M}") Duration maxConnectionAge,
+        @Value("${spring.lifecycle.timeout-per-shutdown-phase:PT30S}") Duration shutdownTimeout
+    ) {
+        ServerBuilder<?> builder = inProcessName.isEmpty()
+            ? NettyServerBuilder.forPort(port)
+                .flowControlWindow((int) flowControlWindow.toBytes()) // Per stream, bounds what a slow reader buffers
+                .permitKeepAliveTime(30L, TimeUnit.SECONDS)
+                .permitKeepAliveWithoutCalls(true)
+                // Clients reconnect and re-resolve, so new pods get a share of connections opened before they started
+                .maxConnectionAge(maxConnectionAge.toMillis(), TimeUnit.MILLISECONDS)
+                .maxConnectionAgeGrace(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            : InProcessServerBuilder.forName(inProcessName);
+
+        services.forEach(builder::addService);
+        this.server = builder.maxInboundMessageSize((int) maxInboundMessageSize.toBytes()).build();
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @Override
+    public void start() {
+        try {
+            this.server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start the gRPC server", e);
+        }
+
+        this.running = true;
+        log.info("gRPC server started on port {}", this.server.getPort());
+    }
+
+    // Stops in the same phase as the graceful HTTP shutdown and alongside it, so in flight calls and requests share
+    // one timeout instead of waiting one after the other
+    @Override
+    public void stop(Runnable callback) {
+        this.server.shutdown();
+
+        Thread awaiting = new Thread(() -> {
+            try {
+                if (!this.server.awaitTermination(this.shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    this.server.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                this.server.shutdownNow();
+                Thread.currentThread().interrupt();
+            } finally {
+                this.running = false;
+                callback.run();
+            }
+        }, "grpc-shutdown");
+        awaiting.setDaemon(true);
+        awaiting.start();
+    }
+
+    @Override
+    public void stop() {
+        this.server.shutdownNow();
+        this.running = false;
+    }
+
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+}
@@ -0,0 +1,137 @@
+package me.thomazz.userservice.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import me.thomazz.userservice.dto.UserDto;
+import me.thomazz.userservice.exception.UserNotFoundException;
+import me.thomazz.userservice.grpc.proto.BatchGetUsersRequest;
+import me.thomazz.userservice.grpc.proto.BatchGetUsersResponse;
+import me.thomazz.userservice.grpc.proto.GetUserRequest;
+import me.thomazz.userservice.grpc.proto.ListUsersRequest;
+import me.thomazz.userservice.grpc.proto.User;
+import me.thomazz.userservice.grpc.proto.UserLookupGrpc;
+import me.thomazz.userservice.repository.UserRepository;
+import me.thomazz.userservice.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Internal lookups without the gateway, its cookie authentication and JSON. Not exposed outside the cluster.
+@Component
+public class UserLookupGrpcService extends UserLookupGrpc.UserLookupImplBase {
+    private final UserService service;
+    private final UserRepository repository;
+    private final int pageSizeLimit;
+    private final int maxBatchSize;
+
+    @Autowired
+    public UserLookupGrpcService(
+        UserService service,
+        UserRepository repository,
+        int pageSizeLimit,
+        @Value("${grpc.server.max-batch-size:1000}") int maxBatchSize
+    ) {
+        this.service = service;
+        this.repository = repository;
+        this.pageSizeLimit = pageSizeLimit;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public void getUser(GetUserRequest request, StreamObserver<User> responseObserver) {
+        UserDto user;
+        try {
+            user = this.service.getUserById(request.getId());
+        } catch (UserNotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription("No such user").asRuntimeException());
+            return;
+        }
+
+        responseObserver.onNext(toProto(user));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void batchGetUsers(BatchGetUsersRequest request, StreamObserver<BatchGetUsersResponse> responseObserver) {
+        if (request.getIdsCount() > this.maxBatchSize) {
+            responseObserver.onError(
+                Status.INVALID_ARGUMENT.withDescription("At most " + this.maxBatchSize + " ids per batch").asRuntimeException()
+            );
+            return;
+        }
+
+        BatchGetUsersResponse.Builder response = BatchGetUsersResponse.newBuilder();
+        if (request.getIdsCount() > 0) {
+            this.repository.findAllListedByIds(new LinkedHashSet<>(request.getIdsList()))
+                .forEach(user -> response.addUsers(toProto(user)));
+        }
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void listUsers(ListUsersRequest request, StreamObserver<User> responseObserver) {
+        if (request.getLimit() < 0) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("Negative limit").asRuntimeException());
+            return;
+        }
+
+        ServerCallStreamObserver<User> observer = (ServerCallStreamObserver<User>) responseObserver;
+        UserStream stream = new UserStream(observer, request.getAfterId(), request.getLimit() == 0 ? Long.MAX_VALUE : request.getLimit());
+
+        // Runs serialized with this call, whenever the client has taken what was sent so far
+        observer.setOnReadyHandler(stream::drain);
+        stream.drain();
+    }
+
+    private static User toProto(UserDto user) {
+        return User.newBuilder()
+            .setId(user.getId())
+            .setUsername(user.getUsername())
+            .setVersion(user.getVersion())
+            .build();
+    }
+
+    // Reads a page at a time and only while the transport accepts more, a slow client never has
+    // more than a page and the flow control window of users buffered for it
+    private class UserStream {
+        private final ServerCallStreamObserver<User> observer;
+        private long afterId;
+        private long remaining;
+        private Iterator<UserDto> page = Collections.emptyIterator();
+        private boolean exhausted;
+        private boolean completed;
+
+        private UserStream(ServerCallStreamObserver<User> observer, long afterId, long limit) {
+            this.observer = observer;
+            this.afterId = afterId;
+            this.remaining = limit;
+        }
+
+        private void drain() {
+            while (!this.completed && this.observer.isReady() && !this.observer.isCancelled()) {
+                if (this.page.hasNext()) {
+                    UserDto user = this.page.next();
+                    this.afterId = user.getId();
+                    this.remaining--;
+                    this.observer.onNext(toProto(user));
+                } else if (this.exhausted || this.remaining == 0) {
+                    this.completed = true;
+                    this.observer.onCompleted();
+                } else {
+                    int size = (int) Math.min(UserLookupGrpcService.this.pageSizeLimit, this.remaining);
+                    List<UserDto> users = UserLookupGrpcService.this.service.getUsersAfter(this.afterId, size);
+                    this.exhausted = users.size() < size;
+                    this.page = users.iterator();
+                }
+            }
+        }
+    }
+}
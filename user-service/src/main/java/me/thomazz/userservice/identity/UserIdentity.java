@@ -0,0 +1,5 @@
+package me.thomazz.userservice.identity;
+
+// Caller as verified by the gateway, expiresAt is in epoch seconds
+public record UserIdentity(long id, long expiresAt) {
+}
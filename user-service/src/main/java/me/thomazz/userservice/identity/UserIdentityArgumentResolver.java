@@ -0,0 +1,85 @@
+package me.thomazz.userservice.identity;
+
+import me.thomazz.userservice.exception.UserIdentityInvalidException;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.Base64;
+
+// Resolves UserIdentity parameters from the '<id>.<expiresAt>.<signature>' header set by the gateway
+public class UserIdentityArgumentResolver implements HandlerMethodArgumentResolver {
+    public static final String IDENTITY_HEADER = "X-User-Identity";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final Clock clock;
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::createMac);
+
+    public UserIdentityArgumentResolver(String secret, Clock clock) {
+        this.key = secret.isEmpty() ? null : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == UserIdentity.class;
+    }
+
+    @Override
+    public UserIdentity resolveArgument(
+        MethodParameter parameter,
+        ModelAndViewContainer mavContainer,
+        NativeWebRequest webRequest,
+        WebDataBinderFactory binderFactory
+    ) {
+        return this.verify(webRequest.getHeader(IDENTITY_HEADER));
+    }
+
+    public UserIdentity verify(String header) {
+        if (this.key == null || header == null) {
+            throw new UserIdentityInvalidException(); // Nothing can be trusted without the shared secret
+        }
+
+        int idEnd = header.indexOf('.');
+        int contentEnd = idEnd < 0 ? -1 : header.indexOf('.', idEnd + 1);
+        UserIdentity identity;
+        byte[] signature;
+
+        try {
+            identity = new UserIdentity(
+                Long.parseLong(header.substring(0, Math.max(idEnd, 0))),
+                Long.parseLong(header.substring(idEnd + 1, Math.max(contentEnd, idEnd + 1)))
+            );
+            signature = Base64.getUrlDecoder().decode(header.substring(contentEnd + 1));
+        } catch (IllegalArgumentException e) {
+            throw new UserIdentityInvalidException();
+        }
+
+        byte[] expected = this.mac.get().doFinal(header.substring(0, contentEnd).getBytes(StandardCharsets.US_ASCII));
+        if (!MessageDigest.isEqual(expected, signature) || identity.expiresAt() < this.clock.instant().getEpochSecond()) {
+            throw new UserIdentityInvalidException();
+        }
+
+        return identity;
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(this.key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + ALGORITHM, e);
+        }
+    }
+}
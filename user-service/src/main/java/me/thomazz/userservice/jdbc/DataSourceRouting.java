@@ -0,0 +1,63 @@
+package me.thomazz.userservice.jdbc;
+
+import java.util.function.Supplier;
+
+// Routing state of the current request, once the caller has written its reads stay on the primary
+public final class DataSourceRouting {
+    private static final ThreadLocal<Context> CONTEXT = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static void begin(boolean pinnedToPrimary, Runnable onFirstWrite) {
+        CONTEXT.set(new Context(pinnedToPrimary, onFirstWrite));
+    }
+
+    public static void end() {
+        CONTEXT.remove();
+    }
+
+    // Work on the primary that does not pin the caller's request: reads that must see every commit, and writes the
+    // caller never reads back through a replica
+    public static <T> T onPrimary(Supplier<T> work) {
+        Context outer = CONTEXT.get();
+        CONTEXT.set(new Context(true, () -> {}));
+
+        try {
+            return work.get();
+        } finally {
+            if (outer == null) {
+                CONTEXT.remove();
+            } else {
+                CONTEXT.set(outer);
+            }
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        Context context = CONTEXT.get();
+        return context != null && context.pinnedToPrimary;
+    }
+
+    public static void recordWrite() {
+        Context context = CONTEXT.get();
+        if (context == null || context.written) {
+            return;
+        }
+
+        context.written = true;
+        context.pinnedToPrimary = true;
+        context.onFirstWrite.run();
+    }
+
+    private static final class Context {
+        private final Runnable onFirstWrite;
+        private boolean pinnedToPrimary;
+        private boolean written;
+
+        private Context(boolean pinnedToPrimary, Runnable onFirstWrite) {
+            this.pinnedToPrimary = pinnedToPrimary;
+            this.onFirstWrite = onFirstWrite;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package me.thomazz.userservice.jdbc;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends read only transactions to the replicas in turn and everything else to the primary.
+// The connection is only fetched on the first statement, when the transaction's read only flag is known.
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+
+        Router router = new Router();
+        router.afterPropertiesSet();
+
+        this.setTargetDataSource(router);
+        this.setDefaultAutoCommit(true); // Otherwise read from a connection, which would be routed as a write
+        this.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        this.afterPropertiesSet();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : this.replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+
+        if (this.primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private class Router extends AbstractRoutingDataSource {
+        private final List<String> replicaKeys = new ArrayList<>();
+        private final AtomicInteger next = new AtomicInteger();
+
+        private Router() {
+            Map<Object, Object> targets = new HashMap<>();
+            targets.put(PRIMARY, ReadWriteRoutingDataSource.this.primary);
+
+            for (int i = 0; i < ReadWriteRoutingDataSource.this.replicas.size(); i++) {
+                String key = "replica-" + i;
+                this.replicaKeys.add(key);
+                targets.put(key, ReadWriteRoutingDataSource.this.replicas.get(i));
+            }
+
+            this.setTargetDataSources(targets);
+            this.setDefaultTargetDataSource(ReadWriteRoutingDataSource.this.primary);
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                    DataSourceRouting.recordWrite();
+                }
+
+                return PRIMARY;
+            }
+
+            if (this.replicaKeys.isEmpty() || DataSourceRouting.isPinnedToPrimary()) {
+                return PRIMARY; // Read your writes, the replicas may lag behind
+            }
+
+            return this.replicaKeys.get(Math.floorMod(this.next.getAndIncrement(), this.replicaKeys.size()));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package me.thomazz.userservice.jdbc;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+
+// Keeps a caller on the primary for a while after it wrote, long enough for the replicas to catch up.
+// The deadline lives in a cookie so it holds across service instances.
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String PRIMARY_COOKIE = "spring_kube_infra_primary_until";
+
+    private final Duration window;
+    private final Clock clock;
+
+    @Autowired
+    public ReadYourWritesFilter(@Value("${datasource.read-your-writes-window:PT5S}") Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain chain
+    ) throws ServletException, IOException {
+        DataSourceRouting.begin(this.primaryUntil(request) > this.clock.millis(), () -> this.addCookie(response));
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.end();
+        }
+    }
+
+    private long primaryUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0L;
+        }
+
+        for (Cookie cookie : request.getCookies()) {
+            if (PRIMARY_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException ignored) {
+                    return 0L;
+                }
+            }
+        }
+
+        return 0L;
+    }
+
+    private void addCookie(HttpServletResponse response) {
+        if (response.isCommitted()) {
+            return;
+        }
+
+        Cookie cookie = new Cookie(PRIMARY_COOKIE, Long.toString(this.clock.millis() + this.window.toMillis()));
+        cookie.setHttpOnly(true);
+        cookie.setPath("/");
+        cookie.setMaxAge((int) Math.max(this.window.toSeconds(), 1L));
+
+        response.addCookie(cookie);
+    }
+}
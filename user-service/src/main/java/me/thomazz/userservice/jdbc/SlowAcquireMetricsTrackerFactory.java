@@ -0,0 +1,37 @@
+package me.thomazz.userservice.jdbc;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+// Logs when waiting for a pooled connection takes long, an early sign the pool is too small
+@Slf4j
+public class SlowAcquireMetricsTrackerFactory implements MetricsTrackerFactory {
+    private final long thresholdNanos;
+
+    public SlowAcquireMetricsTrackerFactory(Duration threshold) {
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                if (elapsedAcquiredNanos >= SlowAcquireMetricsTrackerFactory.this.thresholdNanos) {
+                    log.warn(
+                        "Waited {} ms for a connection from {}, {} active, {} idle, {} waiting",
+                        Duration.ofNanos(elapsedAcquiredNanos).toMillis(),
+                        poolName,
+                        poolStats.getActiveConnections(),
+                        poolStats.getIdleConnections(),
+                        poolStats.getPendingThreads()
+                    );
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package me.thomazz.userservice.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.Base64;
+
+public class EcJwtSigner implements JwtSigner {
+    private static final String JCA_NAME = "SHA256withECDSAinP1363Format"; // JWS expects R || S, not DER
+
+    private final JwtSigningKey key;
+    private final String encodedHeader;
+    private final ThreadLocal<Signature> signature = ThreadLocal.withInitial(this::createSignature);
+
+    public EcJwtSigner(JwtSigningKey key) {
+        this.key = key;
+        this.encodedHeader = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(("{\"alg\":\"ES256\",\"kid\":\"" + key.getId() + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String getEncodedHeader() {
+        return this.encodedHeader;
+    }
+
+    @Override
+    public byte[] sign(byte[] content) {
+        try {
+            Signature signature = this.signature.get();
+            signature.update(content);
+            return signature.sign();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign token with key " + this.key.getId(), e);
+        }
+    }
+
+    private Signature createSignature() {
+        try {
+            Signature signature = Signature.getInstance(JCA_NAME);
+            signature.initSign(this.key.getPrivateKey());
+            return signature;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + JCA_NAME, e);
+        }
+    }
+}
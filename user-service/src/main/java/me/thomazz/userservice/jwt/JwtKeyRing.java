@@ -0,0 +1,94 @@
+package me.thomazz.userservice.jwt;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Every configured key is published in the JWKS, only the active one signs.
+// Rotation: add the new key and deploy, switch the active key id and deploy,
+// then remove the old key once every token signed with it has expired.
+@Component
+public class JwtKeyRing {
+    private final Map<String, JwtSigningKey> keys = new LinkedHashMap<>();
+    private final String activeKeyId;
+
+    @Autowired
+    public JwtKeyRing(
+        @Value("${jwt.signing.keys:}") String keys,
+        @Value("${jwt.signing.active-key-id:}") String activeKeyId
+    ) {
+        Arrays.stream(keys.split(","))
+            .map(String::trim)
+            .filter(entry -> !entry.isEmpty())
+            .map(this::parseKey)
+            .forEach(key -> this.keys.put(key.getId(), key));
+
+        this.activeKeyId = activeKeyId;
+    }
+
+    public JwtSigningKey getActiveKey() {
+        JwtSigningKey key = this.keys.get(this.activeKeyId);
+
+        if (key == null) {
+            throw new IllegalStateException("Active signing key '" + this.activeKeyId + "' is not configured");
+        }
+
+        return key;
+    }
+
+    public Map<String, Object> getJwks() {
+        List<Map<String, String>> jwks = this.keys.values().stream()
+            .map(key -> Map.of(
+                "kty", "EC",
+                "crv", "P-256",
+                "use", "sig",
+                "alg", "ES256",
+                "kid", key.getId(),
+                "x", this.encodeCoordinate(key.getPublicKey().getW().getAffineX()),
+                "y", this.encodeCoordinate(key.getPublicKey().getW().getAffineY())
+            ))
+            .toList();
+
+        return Map.of("keys", jwks);
+    }
+
+    private JwtSigningKey parseKey(String entry) {
+        String[] parts = entry.split(":");
+
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Signing key entries must be formatted as 'kid:private:public'");
+        }
+
+        try {
+            KeyFactory factory = KeyFactory.getInstance("EC");
+            return new JwtSigningKey(
+                parts[0],
+                factory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(parts[1]))),
+                (ECPublicKey) factory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(parts[2])))
+            );
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid signing key '" + parts[0] + "'", e);
+        }
+    }
+
+    // JWK coordinates are unsigned, big endian and padded to the field size
+    private String encodeCoordinate(BigInteger coordinate) {
+        byte[] bytes = coordinate.toByteArray();
+        byte[] padded = new byte[32];
+        int length = Math.min(bytes.length, padded.length);
+        System.arraycopy(bytes, bytes.length - length, padded, padded.length - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+    }
+}
@@ -0,0 +1,7 @@
+package me.thomazz.userservice.jwt;
+
+public interface JwtSigner {
+    String getEncodedHeader();
+
+    byte[] sign(byte[] content);
+}
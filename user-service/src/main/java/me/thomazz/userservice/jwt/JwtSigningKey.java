@@ -0,0 +1,15 @@
+package me.thomazz.userservice.jwt;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+
+@Getter
+@AllArgsConstructor
+public class JwtSigningKey {
+    private final String id;
+    private final PrivateKey privateKey;
+    private final ECPublicKey publicKey;
+}
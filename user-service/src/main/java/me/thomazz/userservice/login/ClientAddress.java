@@ -0,0 +1,5 @@
+package me.thomazz.userservice.login;
+
+// Address the request came from, as the gateway saw it
+public record ClientAddress(String value) {
+}
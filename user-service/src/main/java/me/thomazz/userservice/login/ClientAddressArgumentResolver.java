@@ -0,0 +1,35 @@
+package me.thomazz.userservice.login;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+// The gateway appends the address it accepted the connection from to X-Forwarded-For. Earlier entries are sent by
+// the client and can be anything, so only the last one is used.
+public class ClientAddressArgumentResolver implements HandlerMethodArgumentResolver {
+    public static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == ClientAddress.class;
+    }
+
+    @Override
+    public ClientAddress resolveArgument(
+        MethodParameter parameter,
+        ModelAndViewContainer mavContainer,
+        NativeWebRequest webRequest,
+        WebDataBinderFactory binderFactory
+    ) {
+        String forwardedFor = webRequest.getHeader(FORWARDED_FOR_HEADER);
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            return new ClientAddress(forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim());
+        }
+
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        return new ClientAddress(request == null ? "unknown" : request.getRemoteAddr());
+    }
+}
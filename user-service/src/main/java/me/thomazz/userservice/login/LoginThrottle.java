@@ -0,0 +1,234 @@
+package me.thomazz.userservice.login;
+
+import me.thomazz.userservice.exception.LoginThrottledException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Failed logins per username and per client address, counted in a sliding window: the count of the current fixed
+// window plus the previous one weighted by how much of it still overlaps. Past the free attempts every further
+// attempt has to wait a backoff that doubles per failure, up to the max backoff. Checked before any bcrypt runs,
+// attempts that are turned away do not count as failures.
+// Usernames and addresses are tracked in fixed size tables, spraying made up names cannot grow the heap. A key may take
+// one of two slots picked by a hash seeded per instance, a full pair gives up the entry with the fewest failures.
+// Each entry is small and immutable and replaced by compare and set, so concurrent logins only contend per slot.
+@Component
+public class LoginThrottle {
+    private final Clock clock;
+    private final long windowMillis;
+    private final int accountFreeAttempts;
+    private final int addressFreeAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long seed = new SecureRandom().nextLong();
+    private final AtomicReferenceArray<Failures> accounts;
+    private final AtomicReferenceArray<Failures> addresses;
+
+    @Autowired
+    public LoginThrottle(
+        Clock clock,
+        @Value("${login.throttle.window}") Duration window,
+        @Value("${login.throttle.account-free-attempts}") int accountFreeAttempts,
+        @Value("${login.throttle.address-free-attempts}") int addressFreeAttempts,
+        @Value("${login.throttle.base-backoff}") Duration baseBackoff,
+        @Value("${login.throttle.max-backoff}") Duration maxBackoff,
+        @Value("${login.throttle.max-tracked}") int maxTracked
+    ) {
+        this.clock = clock;
+        this.windowMillis = window.toMillis();
+        this.accountFreeAttempts = accountFreeAttempts;
+        this.addressFreeAttempts = addressFreeAttempts;
+        this.baseBackoffMillis = baseBackoff.toMillis();
+        this.maxBackoffMillis = Math.min(maxBackoff.toMillis(), this.windowMillis); // Entries are purged after two windows
+
+        int slots = Integer.highestOneBit(Math.max(maxTracked, 2)); // Power of two, the hash is masked
+        this.accounts = new AtomicReferenceArray<>(slots);
+        this.addresses = new AtomicReferenceArray<>(slots);
+    }
+
+    public void check(String username, String address) {
+        long now = this.clock.millis();
+
+        if (this.isBlocked(this.find(this.accounts, username), this.accountFreeAttempts, now)
+            || this.isBlocked(this.find(this.addresses, address), this.addressFreeAttempts, now)) {
+            throw new LoginThrottledException();
+        }
+    }
+
+    public void recordFailure(String username, String address) {
+        long now = this.clock.millis();
+        long window = now / this.windowMillis;
+
+        this.add(this.accounts, username, window, now);
+        this.add(this.addresses, address, window, now);
+    }
+
+    // Only the account is cleared, an address guessing many accounts stays throttled
+    public void recordSuccess(String username) {
+        long hash = this.hash(username);
+
+        for (int i = 0; i < 2; i++) {
+            int slot = this.slot(this.accounts, hash, i);
+            Failures failures = this.accounts.get(slot);
+            if (failures != null && failures.key().equals(username)) {
+                this.accounts.compareAndSet(slot, failures, null);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${login.throttle.window}")
+    public void purgeExpired() {
+        long window = this.clock.millis() / this.windowMillis;
+
+        purge(this.accounts, window);
+        purge(this.addresses, window);
+    }
+
+    public int size() {
+        return count(this.accounts) + count(this.addresses);
+    }
+
+    private Failures find(AtomicReferenceArray<Failures> table, String key) {
+        long hash = this.hash(key);
+
+        for (int i = 0; i < 2; i++) {
+            Failures failures = table.get(this.slot(table, hash, i));
+            if (failures != null && failures.key().equals(key)) {
+                return failures;
+            }
+        }
+
+        return null;
+    }
+
+    private void add(AtomicReferenceArray<Failures> table, String key, long window, long now) {
+        long hash = this.hash(key);
+        int first = this.slot(table, hash, 0);
+        int second = this.slot(table, hash, 1);
+
+        while (true) {
+            Failures atFirst = table.get(first);
+            Failures atSecond = table.get(second);
+
+            int slot;
+            Failures current;
+            if (atFirst != null && atFirst.key().equals(key)) {
+                slot = first;
+                current = atFirst;
+            } else if (atSecond != null && atSecond.key().equals(key)) {
+                slot = second;
+                current = atSecond;
+            } else {
+                // Not tracked yet, takes the slot of whichever entry has fewer failures left to count
+                slot = weight(atFirst, window) <= weight(atSecond, window) ? first : second;
+                current = slot == first ? atFirst : atSecond;
+                if (table.compareAndSet(slot, current, Failures.add(null, key, window, now))) {
+                    return;
+                }
+
+                continue;
+            }
+
+            if (table.compareAndSet(slot, current, Failures.add(current, key, window, now))) {
+                return;
+            }
+        }
+    }
+
+    // Two distinct slots per key, a key whose halves hash alike would otherwise evict whatever sits in its one slot
+    private int slot(AtomicReferenceArray<Failures> table, long hash, int i) {
+        int mask = table.length() - 1;
+        int first = (int) hash & mask;
+        if (i == 0) {
+            return first;
+        }
+
+        int second = (int) (hash >>> 32) & mask;
+        return second == first ? first ^ 1 : second;
+    }
+
+    // FNV-1a from a random basis, so colliding names cannot be worked out from outside
+    private long hash(String key) {
+        long hash = this.seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+        }
+
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static int weight(Failures failures, long window) {
+        if (failures == null || failures.window() < window - 1L) {
+            return 0;
+        }
+
+        return failures.window() == window ? failures.current() + failures.previous() : failures.current();
+    }
+
+    private static void purge(AtomicReferenceArray<Failures> table, long window) {
+        for (int i = 0; i < table.length(); i++) {
+            Failures failures = table.get(i);
+            if (failures != null && failures.window() < window - 1L) {
+                table.compareAndSet(i, failures, null);
+            }
+        }
+    }
+
+    private static int count(AtomicReferenceArray<Failures> table) {
+        int count = 0;
+        for (int i = 0; i < table.length(); i++) {
+            if (table.get(i) != null) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private boolean isBlocked(Failures failures, int freeAttempts, long now) {
+        if (failures == null) {
+            return false;
+        }
+
+        long window = now / this.windowMillis;
+        double overlap = 1.0 - (double) (now % this.windowMillis) / this.windowMillis;
+        double count = failures.count(window, overlap);
+        if (count < freeAttempts) {
+            return false;
+        }
+
+        int doublings = (int) Math.min(count - freeAttempts, 30);
+        long backoff = Math.min(this.baseBackoffMillis << doublings, this.maxBackoffMillis);
+        return now < failures.lastAt() + backoff;
+    }
+
+    private record Failures(String key, long window, int current, int previous, long lastAt) {
+        private static Failures add(Failures failures, String key, long window, long now) {
+            if (failures == null || failures.window < window - 1L) {
+                return new Failures(key, window, 1, 0, now);
+            }
+
+            if (failures.window < window) {
+                return new Failures(key, window, 1, failures.current, now);
+            }
+
+            return new Failures(key, failures.window, failures.current + 1, failures.previous, now);
+        }
+
+        private double count(long window, double overlap) {
+            if (this.window == window) {
+                return this.current + this.previous * overlap;
+            }
+
+            return this.window == window - 1L ? this.current * overlap : 0.0;
+        }
+    }
+}
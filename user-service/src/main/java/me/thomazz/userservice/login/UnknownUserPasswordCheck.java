@@ -0,0 +1,25 @@
+package me.thomazz.userservice.login;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// Logins for usernames that do not exist are checked against a hash made once by the same encoder, so they pay
+// the bcrypt cost of a real account and take as long as a wrong password.
+@Component
+public class UnknownUserPasswordCheck {
+    private final PasswordEncoder encoder;
+    private final String hash;
+
+    @Autowired
+    public UnknownUserPasswordCheck(PasswordEncoder encoder) {
+        this.encoder = encoder;
+        this.hash = encoder.encode(UUID.randomUUID().toString());
+    }
+
+    public void verify(String password) {
+        this.encoder.matches(password, this.hash);
+    }
+}
@@ -0,0 +1,77 @@
+package me.thomazz.userservice.login;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Sized for the expected number of usernames at the given false positive rate. Bits are only ever set, with a
+// compare and set per word, so concurrent adds and reads need no lock.
+public class UsernameBloomFilter {
+    private final AtomicLongArray words;
+    private final long mask;
+    private final int hashes;
+
+    public UsernameBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long optimalBits = (long) Math.ceil(-Math.max(expectedInsertions, 1L) * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long bits = Math.max(Long.highestOneBit(Math.max(optimalBits - 1L, 1L)) << 1, Long.SIZE); // Next power of two
+        this.words = new AtomicLongArray((int) (bits / Long.SIZE));
+        this.mask = bits - 1L;
+        this.hashes = Math.max(1, (int) Math.round((double) optimalBits / Math.max(expectedInsertions, 1L) * Math.log(2)));
+    }
+
+    // True when a bit was set, false when the value was, or collides with, one added before
+    public boolean add(String value) {
+        long hash = hash(value);
+        boolean changed = false;
+        for (int i = 0; i < this.hashes; i++) {
+            long index = this.index(hash, i);
+            int word = (int) (index >>> 6);
+            long bit = 1L << index;
+
+            long current = this.words.get(word);
+            while ((current & bit) == 0L) {
+                if (this.words.compareAndSet(word, current, current | bit)) {
+                    changed = true;
+                    break;
+                }
+                current = this.words.get(word);
+            }
+        }
+        return changed;
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < this.hashes; i++) {
+            long index = this.index(hash, i);
+            if ((this.words.get((int) (index >>> 6)) & (1L << index)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return this.mask + 1L;
+    }
+
+    // Expected rate once this many distinct values were added
+    public double falsePositiveRate(long insertions) {
+        return Math.pow(1.0 - Math.exp(-this.hashes * (double) insertions / this.bitSize()), this.hashes);
+    }
+
+    private long index(long hash, int i) {
+        long second = (hash >>> 32) | 1L; // Odd, so every probe of a value lands on a different bit
+        return (hash + i * second) & this.mask;
+    }
+
+    // FNV-1a over the chars, spread by the murmur3 finalizer so the low and high halves are independent
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,224 @@
+package me.thomazz.userservice.login;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import me.thomazz.userservice.dto.UserDto;
+import me.thomazz.userservice.jdbc.DataSourceRouting;
+import me.thomazz.userservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bloom filter of every username, loaded before the application reports ready. A name it rules out needs no
+// database lookup. Users registered through other instances are picked up by a background keyset scan of the newest
+// ids every poll interval, until then the filter can rule them out. Logins cover that window with the read your
+// writes cookie, a caller that just registered elsewhere is still looked up.
+// Deleted names cannot be cleared from the bits, the filter is rebuilt from the table once they pile up.
+@Slf4j
+@Component
+public class UsernameFilter implements ApplicationRunner, MeterBinder {
+    private static final int PAGE_SIZE = 1000;
+    // Ids are taken on insert and can commit out of order, recent ids are scanned again for this long
+    private static final long LOOKBACK_MILLIS = Duration.ofSeconds(10L).toMillis();
+    // Share of deleted names at which the wasted lookups are worth a full scan
+    private static final double MAX_STALE_RATIO = 0.1;
+
+    private final UserRepository repository;
+    private final Clock clock;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong staleEntries = new AtomicLong();
+    private final LongAdder lookupsSkipped = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private volatile UsernameBloomFilter filter;
+    private volatile long capacity;
+    private volatile boolean loaded;
+    private volatile boolean behind;
+
+    // Guarded by this
+    private long seenId;
+    private long rescanFromId;
+    private long checkpointId;
+    private long checkpointAt;
+
+    @Autowired
+    public UsernameFilter(
+        UserRepository repository,
+        Clock clock,
+        @Value("${login.username-filter.expected-users}") long expectedUsers,
+        @Value("${login.username-filter.false-positive-rate}") double falsePositiveRate
+    ) {
+        this.repository = repository;
+        this.clock = clock;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.capacity = expectedUsers;
+        this.filter = new UsernameBloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    // False for a username that did not exist at the last poll, answered from memory without any lock or query
+    public boolean mightExist(String username) {
+        if (!this.loaded || this.behind || this.filter.mightContain(username)) {
+            return true;
+        }
+
+        this.lookupsSkipped.increment();
+        return false;
+    }
+
+    // Also true while the caller is pinned to the primary, it may have registered the name since the last poll
+    public boolean mightExistForCaller(String username) {
+        return DataSourceRouting.isPinnedToPrimary() || this.mightExist(username);
+    }
+
+    public void add(String username) {
+        if (this.filter.add(username)) {
+            this.entries.incrementAndGet();
+        }
+    }
+
+    // The name stays in the bits until the next rebuild, lookups for it just go to the database
+    public void remove(String username) {
+        this.staleEntries.incrementAndGet();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        this.rebuild();
+    }
+
+    @Scheduled(
+        initialDelayString = "${login.username-filter.poll-interval}",
+        fixedDelayString = "${login.username-filter.poll-interval}"
+    )
+    public void pollNewUsers() {
+        if (this.loaded) {
+            this.scanNewUsers(this.clock.millis());
+        }
+    }
+
+    // Also retries a load that failed at startup, and grows a filter that outgrew its false positive rate
+    @Scheduled(
+        initialDelayString = "${login.username-filter.rebuild-check-interval}",
+        fixedDelayString = "${login.username-filter.rebuild-check-interval}"
+    )
+    public void rebuildIfNeeded() {
+        long entries = this.entries.get();
+        if (!this.loaded || this.staleEntries.get() > entries * MAX_STALE_RATIO || entries > this.capacity) {
+            this.rebuild();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("username.filter.size", this, filter -> filter.filter.bitSize() / Byte.SIZE)
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("username.filter.entries", this.entries, AtomicLong::get)
+            .register(registry);
+        Gauge.builder("username.filter.stale.entries", this.staleEntries, AtomicLong::get)
+            .register(registry);
+        Gauge.builder("username.filter.false.positive.rate", this, filter -> filter.filter.falsePositiveRate(filter.entries.get()))
+            .description("Expected rate at the current number of entries")
+            .register(registry);
+        Gauge.builder("username.filter.false.positive.rate.target", this, filter -> filter.falsePositiveRate)
+            .register(registry);
+        FunctionCounter.builder("username.filter.lookups.skipped", this.lookupsSkipped, LongAdder::sum)
+            .register(registry);
+        FunctionCounter.builder("username.filter.rebuilds", this.rebuilds, LongAdder::sum)
+            .register(registry);
+    }
+
+    // Scans into a new filter while the current one keeps answering, then swaps it in and catches up on the users
+    // registered during the scan
+    private void rebuild() {
+        long start = this.clock.millis();
+        long capacity = Math.max(this.expectedUsers, this.entries.get() * 2L); // Room to grow before the next rebuild
+        UsernameBloomFilter rebuilt = new UsernameBloomFilter(capacity, this.falsePositiveRate);
+        Scan scan;
+
+        try {
+            scan = scan(rebuilt, 0L);
+        } catch (DataAccessException e) {
+            log.warn("Username filter not rebuilt, {}: {}", this.loaded ? "keeping the current one" : "every login looks the username up", e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            this.filter = rebuilt;
+            this.capacity = capacity;
+            this.entries.set(scan.added());
+            this.staleEntries.set(0L);
+
+            if (this.loaded) {
+                this.seenId = Math.max(this.seenId, scan.lastId());
+                this.scanNewUsers(this.clock.millis());
+            } else {
+                this.seenId = scan.lastId();
+                this.rescanFromId = scan.lastId();
+                this.checkpointId = scan.lastId();
+                this.checkpointAt = start;
+            }
+        }
+
+        this.loaded = true;
+        this.rebuilds.increment();
+        log.info("Username filter loaded with {} users in {} ms", scan.added(), this.clock.millis() - start);
+    }
+
+    // While a poll fails every name might exist, lookups go to the database until one succeeds again
+    private synchronized void scanNewUsers(long start) {
+        try {
+            Scan scan = DataSourceRouting.onPrimary(() -> this.scan(this.filter, this.rescanFromId)); // Replicas may lag
+            this.entries.addAndGet(scan.added());
+            this.seenId = Math.max(this.seenId, scan.lastId());
+        } catch (DataAccessException e) {
+            this.behind = true;
+            log.warn("Username filter could not catch up: {}", e.getMessage());
+            return;
+        }
+
+        if (start - this.checkpointAt >= LOOKBACK_MILLIS) {
+            this.rescanFromId = this.checkpointId;
+            this.checkpointId = this.seenId;
+            this.checkpointAt = start;
+        }
+
+        this.behind = false;
+    }
+
+    private Scan scan(UsernameBloomFilter filter, long afterId) {
+        long added = 0L;
+        List<UserDto> users;
+
+        do {
+            users = this.repository.findAllListedAfter(afterId, Limit.of(PAGE_SIZE));
+            for (UserDto user : users) {
+                if (filter.add(user.getUsername())) {
+                    added++;
+                }
+                afterId = user.getId();
+            }
+        } while (users.size() == PAGE_SIZE);
+
+        return new Scan(afterId, added);
+    }
+
+    private record Scan(long lastId, long added) {
+    }
+}
@@ -0,0 +1,36 @@
+package me.thomazz.userservice.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.thomazz.userservice.dto.UserEventDto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends one JSON object per line, the whole batch in one write
+public class FileUserEventSink implements UserEventSink {
+    private final Path path;
+    private final ObjectMapper mapper;
+
+    public FileUserEventSink(Path path, ObjectMapper mapper) {
+        this.path = path;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public synchronized void publish(List<UserEventDto> events) {
+        try (BufferedWriter writer = Files.newBufferedWriter(this.path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (UserEventDto event : events) {
+                writer.write(this.mapper.writeValueAsString(event));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package me.thomazz.userservice.outbox;
+
+import me.thomazz.userservice.dto.UserEventDto;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Keeps every event, for tests and local runs only
+public class InMemoryUserEventSink implements UserEventSink {
+    private final List<UserEventDto> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<UserEventDto> events) {
+        this.events.addAll(events);
+    }
+
+    public List<UserEventDto> getEvents() {
+        return List.copyOf(this.events);
+    }
+
+    public void clear() {
+        this.events.clear();
+    }
+}
@@ -0,0 +1,14 @@
+package me.thomazz.userservice.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import me.thomazz.userservice.dto.UserEventDto;
+
+import java.util.List;
+
+@Slf4j
+public class LoggingUserEventSink implements UserEventSink {
+    @Override
+    public void publish(List<UserEventDto> events) {
+        events.forEach(event -> log.info("User event {}", event));
+    }
+}
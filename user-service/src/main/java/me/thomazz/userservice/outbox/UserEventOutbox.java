@@ -0,0 +1,73 @@
+package me.thomazz.userservice.outbox;
+
+import lombok.RequiredArgsConstructor;
+import me.thomazz.userservice.dto.UserEventDto;
+import me.thomazz.userservice.entities.UserEvent;
+import me.thomazz.userservice.entities.UserEventType;
+import me.thomazz.userservice.repository.UserEventRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.util.List;
+
+// Events are rows written in the transaction of the user change they describe, so an event exists exactly when its
+// change committed. They are inserted right before the commit, which also stamps their creation time. The relay drains
+// them lowest id first and deletes what the sink accepted. Instances relay side by side, so events reach the sink in no
+// guaranteed order, not even per user; the user version they carry orders them.
+@Component
+@RequiredArgsConstructor
+public class UserEventOutbox {
+    private final UserEventRepository repository;
+    private final Clock clock;
+
+    // Joins the caller's transaction, an event outside of one could outlive a rolled back change
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UserEventType type, long userId, String username, long version) {
+        UserEvent event = UserEvent.builder()
+            .type(type)
+            .userId(userId)
+            .username(username)
+            .version(version)
+            .occurredAt(this.clock.instant())
+            .build();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                event.setCreatedAt(UserEventOutbox.this.clock.instant());
+                UserEventOutbox.this.repository.save(event);
+            }
+        });
+    }
+
+    // The rows stay locked until the sink returned and they are deleted, other instances skip them meanwhile.
+    // A sink failure rolls the delete back and the batch is published again, delivery is at least once.
+    @Transactional
+    public int publishBatch(UserEventSink sink, int batchSize) {
+        List<UserEvent> events = this.repository.lockNext(Limit.of(batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        sink.publish(events.stream()
+            .map(event -> UserEventDto.builder()
+                .id(event.getId())
+                .type(event.getType())
+                .userId(event.getUserId())
+                .username(event.getUsername())
+                .version(event.getVersion())
+                .occurredAt(event.getOccurredAt().toEpochMilli())
+                .createdAt(event.getCreatedAt().toEpochMilli())
+                .build()
+            )
+            .toList());
+
+        this.repository.deleteAllInBatch(events);
+        return events.size();
+    }
+}
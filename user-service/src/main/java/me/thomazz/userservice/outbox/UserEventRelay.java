@@ -0,0 +1,56 @@
+package me.thomazz.userservice.outbox;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Drains the outbox in batches off the request path, a run keeps going while batches come back full
+@Slf4j
+@Component
+public class UserEventRelay implements MeterBinder {
+    private final UserEventOutbox outbox;
+    private final UserEventSink sink;
+    private final int batchSize;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @Autowired
+    public UserEventRelay(
+        UserEventOutbox outbox,
+        UserEventSink sink,
+        @Value("${outbox.relay.batch-size}") int batchSize
+    ) {
+        this.outbox = outbox;
+        this.sink = sink;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval}")
+    public void relay() {
+        try {
+            int count;
+            do {
+                count = this.outbox.publishBatch(this.sink, this.batchSize);
+                this.published.add(count);
+            } while (count == this.batchSize);
+        } catch (RuntimeException e) { // Any sink failure, the batch stays in the outbox
+            this.failures.increment();
+            log.warn("User events not relayed, retrying next run: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("user.events.published", this.published, LongAdder::sum)
+            .register(registry);
+        FunctionCounter.builder("user.events.relay.failures", this.failures, LongAdder::sum)
+            .register(registry);
+    }
+}
@@ -0,0 +1,11 @@
+package me.thomazz.userservice.outbox;
+
+import me.thomazz.userservice.dto.UserEventDto;
+
+import java.util.List;
+
+// Where relayed events go. A batch is deleted from the outbox only once publish returns, a sink that throws gets the
+// same batch again on the next run.
+public interface UserEventSink {
+    void publish(List<UserEventDto> events);
+}
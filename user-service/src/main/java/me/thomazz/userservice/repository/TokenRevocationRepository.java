@@ -0,0 +1,21 @@
+package me.thomazz.userservice.repository;
+
+import me.thomazz.userservice.entities.TokenRevocation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    @Query("SELECT r FROM TokenRevocation r WHERE r.id > :after AND r.expiresAt > :now ORDER BY r.id")
+    List<TokenRevocation> findActiveAfter(long after, Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.expiresAt <= :now")
+    int deleteExpired(Instant now);
+}
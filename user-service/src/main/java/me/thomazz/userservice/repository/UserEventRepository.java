@@ -0,0 +1,24 @@
+package me.thomazz.userservice.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import me.thomazz.userservice.entities.UserEvent;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserEventRepository extends JpaRepository<UserEvent, Long> {
+    // Lowest ids first, rows another instance is relaying are skipped instead of waited on. Ids are taken on insert,
+    // so they do not follow commit order, and skipped rows are published after later ones.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2")) // SKIP LOCKED
+    @Query("SELECT e FROM UserEvent e ORDER BY e.id")
+    List<UserEvent> lockNext(Limit limit);
+}
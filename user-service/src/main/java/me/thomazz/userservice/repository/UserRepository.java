@@ -1,19 +1,64 @@
 package me.thomazz.userservice.repository;
 
+import me.thomazz.userservice.dto.UserDto;
 import me.thomazz.userservice.entities.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    @Query("SELECT u FROM User u WHERE u.username = :username")
+    // Only reads what the listing index covers
+    @Query("SELECT new me.thomazz.userservice.dto.UserDto(u.id, u.username, u.version) FROM User u ORDER BY u.id")
+    List<UserDto> findAllListed(Pageable pageable);
+
+    // Keyset page after the last id returned, a range scan of the primary key instead of an offset
+    @Query("SELECT new me.thomazz.userservice.dto.UserDto(u.id, u.username, u.version) FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserDto> findAllListedAfter(long afterId, Limit limit);
+
+    // Prefix is lower case with '!', '%' and '_' escaped by '!'
+    @Query(
+        "SELECT new me.thomazz.userservice.repository.UsernamePrefixMatch(u.id, u.username, u.version, u.usernameLower) FROM User u "
+            + "WHERE u.usernameLower LIKE :prefix ESCAPE '!' "
+            + "ORDER BY u.usernameLower, u.id"
+    )
+    List<UsernamePrefixMatch> findByUsernamePrefix(String prefix, Limit limit);
+
+    // Keyset continuation after the (usernameLower, id) of the last user returned
+    @Query(
+        "SELECT new me.thomazz.userservice.repository.UsernamePrefixMatch(u.id, u.username, u.version, u.usernameLower) FROM User u "
+            + "WHERE u.usernameLower LIKE :prefix ESCAPE '!' "
+            + "AND (u.usernameLower > :afterUsername OR (u.usernameLower = :afterUsername AND u.id > :afterId)) "
+            + "ORDER BY u.usernameLower, u.id"
+    )
+    List<UsernamePrefixMatch> findByUsernamePrefixAfter(String prefix, String afterUsername, long afterId, Limit limit);
+
+    // Postgres only, '%' is the pg_trgm similarity operator served by the trigram index
+    @Query(
+        value = "SELECT u.id AS id, u.username AS username, u.version AS version FROM users u "
+            + "WHERE u.username_lower % :query "
+            + "ORDER BY similarity(u.username_lower, :query) DESC, u.id "
+            + "LIMIT :limit",
+        nativeQuery = true
+    )
+    List<UsernameMatch> findByUsernameSimilar(String query, int limit);
+
+    // Current rows of the given ids, unknown ids are deleted users
+    @Query("SELECT new me.thomazz.userservice.dto.UserDto(u.id, u.username, u.version) FROM User u WHERE u.id IN :ids")
+    List<UserDto> findAllListedByIds(Collection<Long> ids);
+
+    // Unique username index to the user id, then the primary key of a single partition
+    @Query("SELECT u FROM User u WHERE u.reservedUsername = :username")
     Optional<User> findByUsername(String username);
 
     @Modifying
     @Query("DELETE FROM User u WHERE u.id = :id")
-    void deleteById(long id);
+    void deleteUserRow(long id);
 }
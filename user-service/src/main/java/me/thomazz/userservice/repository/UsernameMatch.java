@@ -0,0 +1,10 @@
+package me.thomazz.userservice.repository;
+
+// Projection of native username search results
+public interface UsernameMatch {
+    long getId();
+
+    String getUsername();
+
+    long getVersion();
+}
@@ -0,0 +1,10 @@
+package me.thomazz.userservice.repository;
+
+import me.thomazz.userservice.dto.UserDto;
+
+// Prefix search row with the lower case username as stored, the sort key a continuation starts after
+public record UsernamePrefixMatch(long id, String username, long version, String usernameLower) {
+    public UserDto toDto() {
+        return new UserDto(this.id, this.username, this.version);
+    }
+}
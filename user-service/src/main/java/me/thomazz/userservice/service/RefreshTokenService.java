@@ -0,0 +1,103 @@
+package me.thomazz.userservice.service;
+
+import me.thomazz.userservice.entities.RefreshToken;
+import me.thomazz.userservice.exception.RefreshTokenInvalidException;
+import me.thomazz.userservice.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+// Refresh tokens are '<id>.<secret>', looked up by primary key and checked against a hash of the secret.
+// The secret is random and long, so a plain SHA-256 is enough where passwords need bcrypt.
+@Service
+public class RefreshTokenService {
+    private static final int SECRET_LENGTH = 32;
+
+    private final RefreshTokenRepository repository;
+    private final SecureRandom random = new SecureRandom();
+    private final Duration expiration;
+    private final Clock clock;
+
+    @Autowired
+    public RefreshTokenService(
+        RefreshTokenRepository repository,
+        @Value("${jwt.refresh-token.expiration}") String expiration,
+        Clock clock
+    ) {
+        this.repository = repository;
+        this.expiration = Duration.parse(expiration);
+        this.clock = clock;
+    }
+
+    @Transactional
+    public String issue(long userId) {
+        byte[] secret = new byte[SECRET_LENGTH];
+        this.random.nextBytes(secret);
+
+        RefreshToken refreshToken = RefreshToken.builder()
+            .userId(userId)
+            .secretHash(hash(secret))
+            .expiresAt(this.clock.instant().plus(this.expiration))
+            .build();
+
+        long id = this.repository.save(refreshToken).getId();
+        return id + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    // Tokens are single use, the row is deleted so a replayed token is rejected
+    @Transactional
+    public long consume(String token) {
+        int separator = token.indexOf('.');
+        long id;
+        byte[] secret;
+
+        try {
+            id = Long.parseLong(token.substring(0, Math.max(separator, 0)));
+            secret = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new RefreshTokenInvalidException();
+        }
+
+        RefreshToken refreshToken = this.repository.findById(id).orElseThrow(RefreshTokenInvalidException::new);
+        Instant now = this.clock.instant();
+
+        if (!refreshToken.getExpiresAt().isAfter(now) || !MessageDigest.isEqual(hash(secret), refreshToken.getSecretHash())) {
+            throw new RefreshTokenInvalidException();
+        }
+
+        if (this.repository.deleteConsumed(id) == 0) {
+            throw new RefreshTokenInvalidException(); // Consumed concurrently
+        }
+
+        return refreshToken.getUserId();
+    }
+
+    @Transactional
+    public void revokeUser(long userId) {
+        this.repository.deleteByUserId(userId);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval}")
+    public void purgeExpired() {
+        this.repository.deleteExpired(this.clock.instant());
+    }
+
+    private static byte[] hash(byte[] secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package me.thomazz.userservice.service;
+
+import me.thomazz.userservice.dto.TokenRevocationDto;
+import me.thomazz.userservice.entities.TokenRevocation;
+import me.thomazz.userservice.repository.TokenRevocationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+public class TokenRevocationService {
+    private static final int PAGE_SIZE = 1000;
+
+    private final TokenRevocationRepository repository;
+    private final Duration expiration;
+    private final Clock clock;
+
+    @Autowired
+    public TokenRevocationService(
+        TokenRevocationRepository repository,
+        @Value("${jwt.expiration}") String expiration,
+        Clock clock
+    ) {
+        this.repository = repository;
+        this.expiration = Duration.parse(expiration);
+        this.clock = clock;
+    }
+
+    // Revokes every token issued to the user so far, the entry is only kept as long as such a token can live
+    @Transactional
+    public void revokeUser(long userId) {
+        Instant now = this.clock.instant();
+
+        TokenRevocation revocation = TokenRevocation.builder()
+            .subject(userId)
+            .revokedAt(now)
+            .expiresAt(now.plus(this.expiration))
+            .build();
+
+        this.repository.save(revocation);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TokenRevocationDto> getRevocations(long after) {
+        return this.repository.findActiveAfter(after, this.clock.instant(), PageRequest.ofSize(PAGE_SIZE)).stream()
+            .map(revocation -> TokenRevocationDto.builder()
+                .id(revocation.getId())
+                .subject(revocation.getSubject())
+                .revokedAt(revocation.getRevokedAt().getEpochSecond())
+                .expiresAt(revocation.getExpiresAt().getEpochSecond())
+                .build()
+            )
+            .toList();
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval}")
+    public void purgeExpired() {
+        this.repository.deleteExpired(this.clock.instant());
+    }
+}
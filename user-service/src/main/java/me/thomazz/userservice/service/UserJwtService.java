@@ -1,42 +1,48 @@
 package me.thomazz.userservice.service;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import me.thomazz.userservice.jwt.JwtSigner;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Date;
-import java.util.Map;
+import java.util.Base64;
 
 @Service
 public class UserJwtService {
-    private final SecretKey key;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final JwtSigner signer;
     private final Duration expiration;
     private final Clock clock;
 
     @Autowired
     public UserJwtService(
-        @Value("${jwt.secret}") String secret,
+        JwtSigner signer,
         @Value("${jwt.expiration}") String expiration,
         Clock clock
     ) {
-        this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.signer = signer;
         this.expiration = Duration.parse(expiration);
         this.clock = clock;
     }
 
+    // Produces the same compact token as the JJWT builder, only the claims are serialized per call
     public String generateToken(long userId) {
-        return Jwts.builder()
-            .setClaims(Map.of("id", userId))
-            .setSubject(Long.toString(userId))
-            .setIssuedAt(Date.from(this.clock.instant()))
-            .setExpiration(Date.from(Instant.now(this.clock).plus(this.expiration)))
-            .signWith(this.key)
-            .compact();
+        Instant issuedAt = this.clock.instant();
+        Instant expiresAt = issuedAt.plus(this.expiration);
+
+        String claims = "{\"id\":" + userId
+            + ",\"sub\":\"" + userId
+            + "\",\"iat\":" + issuedAt.getEpochSecond()
+            + ",\"exp\":" + expiresAt.getEpochSecond() + '}';
+
+        String content = this.signer.getEncodedHeader() + '.' + ENCODER.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        byte[] signature = this.signer.sign(content.getBytes(StandardCharsets.US_ASCII));
+
+        return content + '.' + ENCODER.encodeToString(signature);
     }
 }
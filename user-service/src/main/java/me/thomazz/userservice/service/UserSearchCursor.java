@@ -0,0 +1,25 @@
+package me.thomazz.userservice.service;
+
+import me.thomazz.userservice.exception.UserSearchCursorInvalidException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Sort key of the last user of a prefix search page, handed to clients as an opaque token so the next page is one
+// keyset query, whether or not that user still exists
+public record UserSearchCursor(String usernameLower, long id) {
+    public String encode() {
+        byte[] bytes = (this.id + ":" + this.usernameLower).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static UserSearchCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            return new UserSearchCursor(value.substring(separator + 1), Long.parseLong(value.substring(0, Math.max(separator, 0))));
+        } catch (IllegalArgumentException e) {
+            throw new UserSearchCursorInvalidException();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package me.thomazz.userservice.service;
+
+import me.thomazz.userservice.dto.UserDto;
+
+import java.util.List;
+
+// Next is null once a page comes back short
+public record UserSearchPage(List<UserDto> users, String next) {
+}
@@ -0,0 +1,81 @@
+package me.thomazz.userservice.service;
+
+import lombok.RequiredArgsConstructor;
+import me.thomazz.userservice.dto.UserDto;
+import me.thomazz.userservice.exception.UserPageSizeLimitExceededException;
+import me.thomazz.userservice.repository.UserRepository;
+import me.thomazz.userservice.repository.UsernamePrefixMatch;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+
+@Service
+@RequiredArgsConstructor
+public class UserSearchService {
+    private final UserRepository repository;
+    private final UsernamePrefixCache prefixCache;
+    private final int pageSizeLimit;
+
+    // Ordered by lower case username, pass the cursor of a full page to continue
+    @Transactional(readOnly = true)
+    public UserSearchPage searchByPrefix(String prefix, int limit, String after) {
+        this.checkLimit(limit);
+
+        String normalized = prefix.toLowerCase(Locale.ROOT);
+        String pattern = escape(normalized) + '%';
+        List<UsernamePrefixMatch> matches;
+
+        if (after != null) {
+            UserSearchCursor cursor = UserSearchCursor.decode(after);
+            matches = this.repository.findByUsernamePrefixAfter(pattern, cursor.usernameLower(), cursor.id(), Limit.of(limit));
+        } else if (!this.prefixCache.isCacheable(normalized)) {
+            matches = this.repository.findByUsernamePrefix(pattern, Limit.of(limit));
+        } else {
+            // Cache the largest page once and serve every smaller limit from it
+            List<UsernamePrefixMatch> cached = this.prefixCache.get(
+                normalized,
+                () -> this.repository.findByUsernamePrefix(pattern, Limit.of(this.pageSizeLimit))
+            );
+            matches = cached.subList(0, Math.min(limit, cached.size()));
+        }
+
+        UsernamePrefixMatch last = matches.size() < limit ? null : matches.get(matches.size() - 1);
+        return new UserSearchPage(
+            matches.stream().map(UsernamePrefixMatch::toDto).toList(),
+            last == null ? null : new UserSearchCursor(last.usernameLower(), last.id()).encode()
+        );
+    }
+
+    // Best matches first, no continuation since the ranking is relative to the query
+    @Transactional(readOnly = true)
+    public List<UserDto> searchFuzzy(String query, int limit) {
+        this.checkLimit(limit);
+
+        return this.repository.findByUsernameSimilar(query.toLowerCase(Locale.ROOT), limit).stream()
+            .map(match -> new UserDto(match.getId(), match.getUsername(), match.getVersion()))
+            .toList();
+    }
+
+    private void checkLimit(int limit) {
+        if (limit < 1 || limit > this.pageSizeLimit) {
+            throw new UserPageSizeLimitExceededException();
+        }
+    }
+
+    private static String escape(String prefix) {
+        StringBuilder builder = new StringBuilder(prefix.length() + 4);
+
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '!' || c == '%' || c == '_') {
+                builder.append('!');
+            }
+            builder.append(c);
+        }
+
+        return builder.toString();
+    }
+}
@@ -2,48 +2,147 @@ package me.thomazz.userservice.service;
 
 import lombok.RequiredArgsConstructor;
 import me.thomazz.userservice.dto.UserDto;
+import me.thomazz.userservice.dto.UserRevalidationDto;
+import me.thomazz.userservice.dto.UserTokensDto;
+import me.thomazz.userservice.dto.UserVersionDto;
 import me.thomazz.userservice.exception.UserInvalidPasswordException;
 import me.thomazz.userservice.exception.UserNotFoundException;
 import me.thomazz.userservice.exception.UserPageSizeLimitExceededException;
 import me.thomazz.userservice.exception.UsernameAlreadyExistsException;
 import me.thomazz.userservice.entities.User;
+import me.thomazz.userservice.entities.UserEventType;
+import me.thomazz.userservice.jdbc.DataSourceRouting;
+import me.thomazz.userservice.login.LoginThrottle;
+import me.thomazz.userservice.login.UnknownUserPasswordCheck;
+import me.thomazz.userservice.login.UsernameFilter;
+import me.thomazz.userservice.outbox.UserEventOutbox;
 import me.thomazz.userservice.repository.UserRepository;
 import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
+    private static final int LISTING_CHUNK_SIZE = 25;
+
     private final UserJwtService jwtService;
+    private final TokenRevocationService revocationService;
+    private final RefreshTokenService refreshTokenService;
     private final UserRepository repository;
     private final PasswordEncoder passwordEncoder;
     private final ModelMapper modelMapper;
+    private final UsernameFilter usernameFilter;
+    private final UnknownUserPasswordCheck unknownUserPasswordCheck;
+    private final LoginThrottle loginThrottle;
+    private final UserEventOutbox eventOutbox;
+    private final TransactionTemplate transactions;
     private final int pageSizeLimit;
 
+    @Transactional(readOnly = true)
     public List<UserDto> getAllUsers(Pageable pageable) {
+        this.checkPageSize(pageable);
+
+        return this.repository.findAllListed(pageable);
+    }
+
+    // Reads the page in keyset chunks, each in its own short read only transaction, and hands a chunk over before the
+    // next one is read. A slow reader holds no pooled connection while its chunk is written.
+    public void forEachUserChunk(Pageable pageable, Consumer<? super List<UserDto>> action) {
+        this.checkPageSize(pageable);
+
+        long afterId = 0L;
+        if (pageable.getOffset() > 0L) {
+            if (pageable.getOffset() > Integer.MAX_VALUE) {
+                return;
+            }
+
+            // Last row of the page before, the only offset read
+            List<UserDto> previous = this.repository.findAllListed(PageRequest.of((int) pageable.getOffset() - 1, 1));
+            if (previous.isEmpty()) {
+                return;
+            }
+            afterId = previous.get(0).getId();
+        }
+
+        int remaining = pageable.getPageSize();
+        while (remaining > 0) {
+            int size = Math.min(remaining, LISTING_CHUNK_SIZE);
+            List<UserDto> chunk = this.repository.findAllListedAfter(afterId, Limit.of(size));
+            if (!chunk.isEmpty()) {
+                action.accept(chunk);
+            }
+
+            if (chunk.size() < size) {
+                return;
+            }
+
+            afterId = chunk.get(chunk.size() - 1).getId();
+            remaining -= size;
+        }
+    }
+
+    public void checkPageSize(Pageable pageable) {
         if (pageable.getPageSize() > this.pageSizeLimit) {
             throw new UserPageSizeLimitExceededException();
         }
+    }
 
-        return this.repository.findAll(pageable).stream()
-            .map(user -> this.modelMapper.map(user, UserDto.class))
-            .toList();
+    @Transactional(readOnly = true)
+    public List<UserDto> getUsersAfter(long afterId, int limit) {
+        if (limit < 1 || limit > this.pageSizeLimit) {
+            throw new UserPageSizeLimitExceededException();
+        }
+
+        return this.repository.findAllListedAfter(afterId, Limit.of(limit));
     }
 
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
         return this.repository.findById(id)
             .map(user -> this.modelMapper.map(user, UserDto.class))
             .orElseThrow(UserNotFoundException::new);
     }
 
+    // One query for the whole batch, only users whose version moved or that were deleted are returned
+    @Transactional(readOnly = true)
+    public UserRevalidationDto revalidateUsers(List<UserVersionDto> known) {
+        if (known.size() > this.pageSizeLimit) {
+            throw new UserPageSizeLimitExceededException();
+        }
+
+        Map<Long, Long> knownVersions = known.stream()
+            .collect(Collectors.toMap(UserVersionDto::getId, UserVersionDto::getVersion, (first, second) -> second));
+        List<UserDto> current = knownVersions.isEmpty() ? List.of() : this.repository.findAllListedByIds(knownVersions.keySet());
+
+        Set<Long> deleted = new HashSet<>(knownVersions.keySet());
+        current.forEach(user -> deleted.remove(user.getId()));
+
+        return UserRevalidationDto.builder()
+            .changed(current.stream().filter(user -> user.getVersion() != knownVersions.get(user.getId())).toList())
+            .deleted(deleted.stream().sorted().toList())
+            .build();
+    }
+
     @Transactional
     public void registerUser(String username, String password) {
-        if (this.repository.findByUsername(username).isPresent()) {
+        // Most new names are free and skip the lookup, the unique username index settles concurrent signups and names
+        // registered through other instances since the filter last polled
+        if (this.usernameFilter.mightExist(username) && this.repository.findByUsername(username).isPresent()) {
             throw new UsernameAlreadyExistsException();
         }
 
@@ -52,25 +151,68 @@ public class UserService {
             .password(this.passwordEncoder.encode(password))
             .build();
 
-        this.repository.save(user);
+        try {
+            this.repository.save(user); // Inserted right away, the identity is assigned by the database
+        } catch (DataIntegrityViolationException e) {
+            throw new UsernameAlreadyExistsException(); // Taken concurrently, or registered elsewhere after the filter check
+        }
+
+        this.usernameFilter.add(username);
+        this.eventOutbox.record(UserEventType.REGISTERED, user.getId(), username, user.getVersion());
     }
 
     @Transactional
     public void deleteUser(long id) {
-        if (this.repository.findById(id).isEmpty()) {
-            throw new UserNotFoundException();
-        }
+        User user = this.repository.findById(id).orElseThrow(UserNotFoundException::new);
 
-        this.repository.deleteById(id);
+        this.repository.deleteUserRow(id);
+        this.usernameFilter.remove(user.getUsername());
+        this.revocationService.revokeUser(id);
+        this.refreshTokenService.revokeUser(id);
+        this.eventOutbox.record(UserEventType.DELETED, id, user.getUsername(), user.getVersion() + 1L); // Supersedes every version
     }
 
-    public String loginUser(String username, String password) {
-        User user = this.repository.findByUsername(username).orElseThrow(UserNotFoundException::new);
+    // Unknown usernames cost the same bcrypt check as a wrong password, those the filter rules out skip the lookup.
+    // Throttled attempts are turned away before either. Bcrypt runs outside of a transaction, a pooled connection is
+    // only held for the lookup and for issuing the tokens.
+    public UserTokensDto loginUser(String username, String password, String address) {
+        this.loginThrottle.check(username, address);
 
-        if (!this.passwordEncoder.matches(password, user.getPassword())) {
+        // On the primary, a lagging replica could still hold a user deleted moments ago. Read only, so neither the
+        // lookup nor the login pins the caller to the primary afterwards.
+        Optional<User> user = this.usernameFilter.mightExistForCaller(username)
+            ? DataSourceRouting.onPrimary(() -> this.repository.findByUsername(username))
+            : Optional.empty();
+
+        if (user.isEmpty()) {
+            this.unknownUserPasswordCheck.verify(password);
+            this.loginThrottle.recordFailure(username, address);
+            throw new UserNotFoundException();
+        }
+
+        if (!this.passwordEncoder.matches(password, user.get().getPassword())) {
+            this.loginThrottle.recordFailure(username, address);
             throw new UserInvalidPasswordException();
         }
 
-        return this.jwtService.generateToken(user.getId());
+        this.loginThrottle.recordSuccess(username);
+        // The event and refresh token are only ever read on the primary, they do not pin the caller either
+        return DataSourceRouting.onPrimary(() -> this.transactions.execute(status -> {
+            this.eventOutbox.record(UserEventType.LOGGED_IN, user.get().getId(), username, user.get().getVersion());
+            return this.issueTokens(user.get().getId());
+        }));
+    }
+
+    // Rotates the refresh token, no password check so clients can renew access tokens without bcrypt
+    @Transactional
+    public UserTokensDto refreshUser(String refreshToken) {
+        return this.issueTokens(this.refreshTokenService.consume(refreshToken));
+    }
+
+    private UserTokensDto issueTokens(long userId) {
+        return UserTokensDto.builder()
+            .accessToken(this.jwtService.generateToken(userId))
+            .refreshToken(this.refreshTokenService.issue(userId))
+            .build();
     }
 }
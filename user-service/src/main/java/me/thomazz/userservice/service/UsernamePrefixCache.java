@@ -0,0 +1,67 @@
+package me.thomazz.userservice.service;
+
+import me.thomazz.userservice.repository.UsernamePrefixMatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// First result pages of the shortest prefixes, these match the most rows and are typed the most.
+// Entries expire quickly so new and deleted users show up without invalidation.
+@Component
+public class UsernamePrefixCache {
+    private final int maxPrefixLength;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+
+    @Autowired
+    public UsernamePrefixCache(
+        @Value("${search.prefix-cache.size}") int size,
+        @Value("${search.prefix-cache.ttl}") Duration ttl,
+        @Value("${search.prefix-cache.max-prefix-length}") int maxPrefixLength,
+        Clock clock
+    ) {
+        this.maxPrefixLength = maxPrefixLength;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return this.size() > size;
+            }
+        };
+    }
+
+    public boolean isCacheable(String prefix) {
+        return prefix.length() <= this.maxPrefixLength;
+    }
+
+    public List<UsernamePrefixMatch> get(String prefix, Supplier<List<UsernamePrefixMatch>> loader) {
+        long now = this.clock.millis();
+
+        synchronized (this.entries) {
+            Entry entry = this.entries.get(prefix);
+            if (entry != null && entry.expiresAt() > now) {
+                return entry.users();
+            }
+        }
+
+        List<UsernamePrefixMatch> users = List.copyOf(loader.get()); // Loaded outside the lock, concurrent misses may both load
+
+        synchronized (this.entries) {
+            this.entries.put(prefix, new Entry(users, now + this.ttlMillis));
+        }
+
+        return users;
+    }
+
+    private record Entry(List<UsernamePrefixMatch> users, long expiresAt) {
+    }
+}
@@ -0,0 +1,44 @@
+package me.thomazz.userservice.shutdown;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Once shutdown starts, the graceful shutdown of Tomcat stops accepting connections but keeps serving the ones
+// the gateway already pooled. Closing them after their next response moves the gateway to other instances
+// before Tomcat closes them underneath it.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConnectionDrainingFilter extends OncePerRequestFilter {
+    private volatile boolean draining;
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE) // Before anything else reacts to the shutdown
+    public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        this.draining = event.getState() == ReadinessState.REFUSING_TRAFFIC;
+    }
+
+    @Override
+    protected void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain chain
+    ) throws ServletException, IOException {
+        if (this.draining) {
+            response.setHeader(HttpHeaders.CONNECTION, "close");
+        }
+
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,68 @@
+package me.thomazz.userservice.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import me.thomazz.userservice.service.UserSearchService;
+import me.thomazz.userservice.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Runs the read paths in process before the user service reports ready, runners complete before the readiness state
+// becomes ACCEPTING_TRAFFIC. The listing, keyset and search queries, their mapping and the JSON writers are compiled
+// by the JIT, and the pool has open connections, before the pod gets traffic.
+@Slf4j
+@Component
+public class WarmUpRunner implements ApplicationRunner {
+    private static final int LIMIT = 20;
+
+    private final UserService service;
+    private final UserSearchService searchService;
+    private final ObjectMapper mapper;
+    private final int iterations;
+    private final Duration timeout;
+
+    @Autowired
+    public WarmUpRunner(
+        UserService service,
+        UserSearchService searchService,
+        ObjectMapper mapper,
+        @Value("${warm-up.iterations}") int iterations,
+        @Value("${warm-up.timeout}") Duration timeout
+    ) {
+        this.service = service;
+        this.searchService = searchService;
+        this.mapper = mapper;
+        this.iterations = iterations;
+        this.timeout = timeout;
+    }
+
+    // Only reads, none of these change data or count as failed logins
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + this.timeout.toNanos();
+        int rounds = 0;
+
+        try {
+            for (; rounds < this.iterations && System.nanoTime() < deadline; rounds++) {
+                this.service.forEachUserChunk(PageRequest.of(1, LIMIT), chunk -> {}); // Offset lookup of the listing
+                this.mapper.writeValueAsBytes(this.service.getUsersAfter(0L, LIMIT));
+                this.mapper.writeValueAsBytes(this.searchService.searchByPrefix("warm", LIMIT, null).users());
+            }
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Warm-up stopped after {} rounds: {}", rounds, e.getMessage());
+        }
+
+        if (rounds > 0) {
+            log.info("Warmed up with {} rounds in {} ms", rounds, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+-- Same schema as the Postgres migration, without storage parameters and covering columns
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL
+);
+
+CREATE UNIQUE INDEX user_username_index ON users (username);
+
+CREATE TABLE token_revocations (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    subject    BIGINT NOT NULL,
+    revoked_at TIMESTAMP(6) WITH TIME ZONE,
+    expires_at TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE INDEX token_revocation_expires_at_index ON token_revocations (expires_at);
+
+CREATE TABLE refresh_tokens (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT NOT NULL,
+    secret_hash VARBINARY(255),
+    expires_at  TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE INDEX refresh_token_user_id_index ON refresh_tokens (user_id);
+CREATE INDEX refresh_token_expires_at_index ON refresh_tokens (expires_at);
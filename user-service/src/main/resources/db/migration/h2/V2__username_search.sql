@@ -0,0 +1,4 @@
+-- Prefix search only, fuzzy search needs pg_trgm
+ALTER TABLE users ADD COLUMN username_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(username));
+
+CREATE INDEX user_username_lower_index ON users (username_lower, id);
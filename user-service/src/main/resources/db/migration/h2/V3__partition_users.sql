@@ -0,0 +1,12 @@
+-- H2 has no partitioning, only the usernames table of the Postgres migration
+CREATE TABLE usernames (
+    user_id  BIGINT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL
+);
+
+INSERT INTO usernames (user_id, username) SELECT id, username FROM users;
+
+ALTER TABLE usernames ADD CONSTRAINT username_user_fk FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+CREATE UNIQUE INDEX username_index ON usernames (username);
+
+DROP INDEX user_username_index;
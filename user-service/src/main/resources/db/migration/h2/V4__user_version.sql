@@ -0,0 +1,2 @@
+-- Same column as the Postgres migration, H2 has no covering indexes to rebuild
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,8 @@
+-- Same table as the Postgres migration, without storage parameters
+CREATE TABLE user_events (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type        VARCHAR(32) NOT NULL,
+    user_id     BIGINT NOT NULL,
+    username    VARCHAR(255),
+    occurred_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,2 @@
+-- Storage parameters and covering indexes of the Postgres migration, H2 has neither
+SELECT 1;
@@ -0,0 +1,3 @@
+-- Same columns as the Postgres migration
+ALTER TABLE user_events ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE user_events ADD COLUMN created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
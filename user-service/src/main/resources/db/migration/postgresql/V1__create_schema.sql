@@ -0,0 +1,32 @@
+-- Users are read far more than updated, the spare 10% per page keeps password changes HOT updates
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL
+) WITH (fillfactor = 90);
+
+-- Login reads id and password by username without touching the heap
+CREATE UNIQUE INDEX user_username_index ON users (username) INCLUDE (id, password);
+
+-- Listing reads (id, username) in id order as an index only scan
+CREATE INDEX user_listing_index ON users (id) INCLUDE (username);
+
+-- Revocations and refresh tokens are only inserted and deleted, pages are packed full
+CREATE TABLE token_revocations (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    subject    BIGINT NOT NULL,
+    revoked_at TIMESTAMP(6) WITH TIME ZONE,
+    expires_at TIMESTAMP(6) WITH TIME ZONE
+) WITH (fillfactor = 100);
+
+CREATE INDEX token_revocation_expires_at_index ON token_revocations (expires_at);
+
+CREATE TABLE refresh_tokens (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT NOT NULL,
+    secret_hash BYTEA,
+    expires_at  TIMESTAMP(6) WITH TIME ZONE
+) WITH (fillfactor = 100);
+
+CREATE INDEX refresh_token_user_id_index ON refresh_tokens (user_id);
+CREATE INDEX refresh_token_expires_at_index ON refresh_tokens (expires_at);
@@ -0,0 +1,7 @@
+-- Byte ordered so one btree serves LIKE 'prefix%' and the keyset ORDER BY, whatever the database locale
+ALTER TABLE users ADD COLUMN username_lower VARCHAR(255) COLLATE "C" GENERATED ALWAYS AS (lower(username)) STORED;
+
+CREATE INDEX user_username_lower_index ON users (username_lower, id) INCLUDE (username);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX user_username_trigram_index ON users USING gin (username_lower gin_trgm_ops);
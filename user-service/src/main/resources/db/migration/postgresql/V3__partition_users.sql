@@ -0,0 +1,45 @@
+-- Spreads user writes, vacuum and index maintenance over partitions hashed on id.
+-- Partitions cannot enforce a unique index without the partition key, so usernames are made
+-- unique in a separate narrow table keyed by user id. Identity columns are not supported on
+-- partitioned tables before Postgres 17, the id comes from a plain sequence instead.
+CREATE SEQUENCE user_id_sequence;
+SELECT setval('user_id_sequence', COALESCE((SELECT max(id) FROM users), 0) + 1, false);
+
+CREATE TABLE users_partitioned (
+    id             BIGINT NOT NULL DEFAULT nextval('user_id_sequence'),
+    username       VARCHAR(255) NOT NULL,
+    password       VARCHAR(255) NOT NULL,
+    username_lower VARCHAR(255) COLLATE "C" GENERATED ALWAYS AS (lower(username)) STORED,
+    PRIMARY KEY (id)
+) PARTITION BY HASH (id);
+
+CREATE TABLE users_p0 PARTITION OF users_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 0) WITH (fillfactor = 90);
+CREATE TABLE users_p1 PARTITION OF users_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 1) WITH (fillfactor = 90);
+CREATE TABLE users_p2 PARTITION OF users_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 2) WITH (fillfactor = 90);
+CREATE TABLE users_p3 PARTITION OF users_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 3) WITH (fillfactor = 90);
+CREATE TABLE users_p4 PARTITION OF users_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 4) WITH (fillfactor = 90);
+CREATE TABLE users_p5 PARTITION OF users_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 5) WITH (fillfactor = 90);
+CREATE TABLE users_p6 PARTITION OF users_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 6) WITH (fillfactor = 90);
+CREATE TABLE users_p7 PARTITION OF users_partitioned FOR VALUES WITH (MODULUS 8, REMAINDER 7) WITH (fillfactor = 90);
+
+INSERT INTO users_partitioned (id, username, password) SELECT id, username, password FROM users;
+
+-- Only inserted and deleted, login reads the user id from the index alone
+CREATE TABLE usernames (
+    user_id  BIGINT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL
+) WITH (fillfactor = 100);
+
+INSERT INTO usernames (user_id, username) SELECT id, username FROM users;
+
+DROP TABLE users;
+ALTER TABLE users_partitioned RENAME TO users;
+ALTER SEQUENCE user_id_sequence OWNED BY users.id;
+
+ALTER TABLE usernames ADD CONSTRAINT username_user_fk FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+CREATE UNIQUE INDEX username_index ON usernames (username) INCLUDE (user_id);
+
+-- Indexes of V1 and V2 except the username index, created per partition
+CREATE INDEX user_listing_index ON users (id) INCLUDE (username);
+CREATE INDEX user_username_lower_index ON users (username_lower, id) INCLUDE (username);
+CREATE INDEX user_username_trigram_index ON users USING gin (username_lower gin_trgm_ops);
@@ -0,0 +1,10 @@
+-- Incremented by Hibernate on every update of a user, the ETag and revalidation token of a row.
+-- A constant default is only recorded in the catalog, existing rows are not rewritten.
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Listing and prefix search return the version, keep them index only scans
+DROP INDEX user_listing_index;
+CREATE INDEX user_listing_index ON users (id) INCLUDE (username, version);
+
+DROP INDEX user_username_lower_index;
+CREATE INDEX user_username_lower_index ON users (username_lower, id) INCLUDE (username, version);
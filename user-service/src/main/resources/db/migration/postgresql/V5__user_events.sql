@@ -0,0 +1,9 @@
+-- Outbox of user lifecycle events, written in the transaction of the change and deleted once relayed.
+-- Rows live for seconds, pages are packed full and autovacuum runs often on the churn.
+CREATE TABLE user_events (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type        VARCHAR(32) NOT NULL,
+    user_id     BIGINT NOT NULL,
+    username    VARCHAR(255),
+    occurred_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+) WITH (fillfactor = 100, autovacuum_vacuum_scale_factor = 0.01);
@@ -0,0 +1,19 @@
+-- V1 left 10% of every users page free for HOT updates, but every update bumps version, which the listing and
+-- prefix search indexes include, and no update is ever HOT. Pages are packed full from now on, existing pages keep
+-- their free space until they are rewritten.
+ALTER TABLE users_p0 SET (fillfactor = 100);
+ALTER TABLE users_p1 SET (fillfactor = 100);
+ALTER TABLE users_p2 SET (fillfactor = 100);
+ALTER TABLE users_p3 SET (fillfactor = 100);
+ALTER TABLE users_p4 SET (fillfactor = 100);
+ALTER TABLE users_p5 SET (fillfactor = 100);
+ALTER TABLE users_p6 SET (fillfactor = 100);
+ALTER TABLE users_p7 SET (fillfactor = 100);
+
+-- The listing index duplicated the primary key on id, the primary key now covers the listing columns itself
+ALTER TABLE usernames DROP CONSTRAINT username_user_fk;
+ALTER TABLE users DROP CONSTRAINT users_partitioned_pkey;
+ALTER TABLE users ADD CONSTRAINT users_pkey PRIMARY KEY (id) INCLUDE (username, version);
+ALTER TABLE usernames ADD CONSTRAINT username_user_fk FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+
+DROP INDEX user_listing_index;
@@ -0,0 +1,4 @@
+-- Events carry the version of the user they describe and the time their transaction committed, consumers order the
+-- events of a user by version. The defaults only cover rows written by instances that predate this migration.
+ALTER TABLE user_events ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE user_events ADD COLUMN created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
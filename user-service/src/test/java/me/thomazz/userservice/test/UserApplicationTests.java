@@ -1,6 +1,7 @@
 package me.thomazz.userservice.test;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
 import lombok.RequiredArgsConstructor;
 import me.thomazz.userservice.UserApplication;
 import me.thomazz.userservice.dto.UserByIdRequest;
@@ -10,6 +11,8 @@ import me.thomazz.userservice.dto.UserGetAllRequest;
 import me.thomazz.userservice.dto.UserLoginRequest;
 import me.thomazz.userservice.dto.UserRegisterRequest;
 import me.thomazz.userservice.entities.User;
+import me.thomazz.userservice.jdbc.ReadYourWritesFilter;
+import me.thomazz.userservice.login.UsernameFilter;
 import me.thomazz.userservice.repository.UserRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
@@ -30,6 +33,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
@@ -43,6 +47,7 @@ public class UserApplicationTests {
     private final ObjectMapper mapper;
     private final UserRepository repository;
     private final PasswordEncoder encoder;
+    private final UsernameFilter usernameFilter;
     private final int pageSizeLimit;
 
     @Test
@@ -96,6 +101,7 @@ public class UserApplicationTests {
                 .password(this.encoder.encode("testing"))
                 .build()
         );
+        this.usernameFilter.pollNewUsers(); // Saved as if through another instance
 
         UserLoginRequest request = UserLoginRequest.builder()
             .username("test")
@@ -121,6 +127,7 @@ public class UserApplicationTests {
                 .password(this.encoder.encode("testing"))
                 .build()
         );
+        this.usernameFilter.pollNewUsers(); // Saved as if through another instance
 
         UserLoginRequest request = UserLoginRequest.builder()
             .username("test")
@@ -291,6 +298,34 @@ public class UserApplicationTests {
 
     @Test
     @Order(12)
+    @DisplayName("Delete user by id - Revokes tokens")
+    public void testUserDeleteByIdRevokesTokens() throws Exception {
+        this.repository.save(
+            User.builder()
+                .id(1L)
+                .username("test")
+                .password(this.encoder.encode("testing"))
+                .build()
+        );
+
+        UserDeleteByIdRequest request = UserDeleteByIdRequest.builder()
+            .id(1L)
+            .build();
+
+        this.mvc.perform(
+                delete("/api/v1/users/id")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.mapper.writeValueAsString(request))
+            )
+            .andExpect(status().isOk());
+
+        this.mvc.perform(get("/internal/v1/revocations").param("after", "0"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].subject").value(1L));
+    }
+
+    @Test
+    @Order(13)
     @DisplayName("Delete user by id - Not found")
     public void testDeleteUserByIdInvalidReturnsNotFound() throws Exception {
         UserDeleteByIdRequest request = UserDeleteByIdRequest.builder()
@@ -304,4 +339,103 @@ public class UserApplicationTests {
             )
             .andExpect(status().isNotFound());
     }
+
+    @Test
+    @Order(14)
+    @DisplayName("User refresh - Rotates refresh token")
+    public void testUserRefreshRotatesRefreshToken() throws Exception {
+        this.repository.save(
+            User.builder()
+                .username("test")
+                .password(this.encoder.encode("testing"))
+                .build()
+        );
+        this.usernameFilter.pollNewUsers(); // Saved as if through another instance
+
+        UserLoginRequest request = UserLoginRequest.builder()
+            .username("test")
+            .password("testing")
+            .build();
+
+        Cookie refreshCookie = this.mvc.perform(
+                post("/api/v1/users/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.mapper.writeValueAsString(request))
+            )
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getCookie("spring_kube_infra_refresh_token");
+
+        this.mvc.perform(post("/api/v1/users/refresh").cookie(refreshCookie))
+            .andExpect(status().isOk())
+            .andExpect(cookie().exists("spring_kube_infra_login_token"))
+            .andExpect(cookie().exists("spring_kube_infra_refresh_token"));
+
+        this.mvc.perform(post("/api/v1/users/refresh").cookie(refreshCookie))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("User login - Registered through another instance, not polled yet")
+    public void testUserLoginRegisteredElsewhereNotPolled() throws Exception {
+        this.repository.save(
+            User.builder()
+                .username("test")
+                .password(this.encoder.encode("testing"))
+                .build()
+        );
+
+        UserLoginRequest request = UserLoginRequest.builder()
+            .username("test")
+            .password("testing")
+            .build();
+
+        this.mvc.perform(
+                post("/api/v1/users/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.mapper.writeValueAsString(request))
+            )
+            .andExpect(status().isNotFound()); // Ruled out from memory until the next poll
+
+        this.mvc.perform(
+                post("/api/v1/users/login")
+                    .cookie(new Cookie(ReadYourWritesFilter.PRIMARY_COOKIE, Long.toString(Long.MAX_VALUE)))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.mapper.writeValueAsString(request))
+            )
+            .andExpect(status().isOk()); // The caller that registered it is looked up
+
+        this.usernameFilter.pollNewUsers();
+
+        this.mvc.perform(
+                post("/api/v1/users/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.mapper.writeValueAsString(request))
+            )
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("Get all users - Page written in several chunks")
+    public void testUserGetAllChunked() throws Exception {
+        for (int i = 0; i < 60; i++) {
+            this.repository.save(User.builder().username(String.format("test%02d", i)).password("testing").build());
+        }
+
+        UserGetAllRequest request = UserGetAllRequest.builder()
+            .pageNumber(1)
+            .pageSize(40)
+            .build();
+
+        this.mvc.perform(
+                get("/api/v1/users")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.mapper.writeValueAsString(request))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(20))
+            .andExpect(jsonPath("$[0].username").value("test40"))
+            .andExpect(jsonPath("$[19].username").value("test59"));
+    }
 }
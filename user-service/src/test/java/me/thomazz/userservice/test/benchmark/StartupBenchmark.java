@@ -0,0 +1,153 @@
+package me.thomazz.userservice.test.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Not picked up by surefire, package the module with mvn -Paot package first and run main() on the test classpath.
+// Measures the time from launching the JVM until the first request is answered, for the fat jar and for the
+// unpacked layout the Dockerfile builds, with the AppCDS archive and with the AOT processed context.
+// Startup runs the migrations, point it at Postgres with -Dbenchmark.jdbc-url=jdbc:postgresql://host/db
+// -Dbenchmark.username=... -Dbenchmark.password=...
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+    private static final String MAIN_CLASS = "me.thomazz.userservice.UserApplication";
+    private static final String FIRST_REQUEST = "/api/v1/users/me"; // Rejected without an identity, no query needed
+    private static final String JWT_SECRET = "QZiS4/mo/zmH8X90pTL5WQ9z5ogDmCILLiZfmcyPug4=";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2L);
+
+    @Param({"jar", "cds", "cds-aot"})
+    private String mode;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(100L)).build();
+    private Path directory;
+    private List<String> command;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+        if (System.getProperty("benchmark.jdbc-url") == null) {
+            throw new IllegalStateException("Set -Dbenchmark.jdbc-url to a Postgres database");
+        }
+
+        Path jar = Path.of(System.getProperty("benchmark.jar", "target/user-service-1.0.jar")).toAbsolutePath();
+        this.directory = Files.createTempDirectory("startup-benchmark");
+
+        if (this.mode.equals("jar")) {
+            this.command = List.of(tool("java"), "-jar", jar.toString());
+            return;
+        }
+
+        // Same steps as the Dockerfile, CDS needs the classes as jars on a plain class path
+        this.run(tool("jar"), "-xf", jar.toString());
+        this.run(tool("jar"), "-cf", "application.jar", "-C", "BOOT-INF/classes", ".");
+        Files.move(this.directory.resolve("BOOT-INF/lib"), this.directory.resolve("lib"));
+
+        // The training run of the Dockerfile has no database, so it skips Flyway and Hibernate's metadata lookups
+        this.run(tool("java"), "-XX:ArchiveClassesAtExit=application.jsa", "-Dspring.context.exit=onRefresh",
+            "-Dspring.flyway.enabled=false", "-Djwt.secret=" + JWT_SECRET,
+            "-Dspring.datasource.url=jdbc:postgresql://localhost:1/training",
+            "-Dspring.datasource.username=training", "-Dspring.datasource.password=training",
+            "-Dspring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+            "-Dspring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false",
+            "-cp", "application.jar:lib/*", MAIN_CLASS);
+
+        this.command = new ArrayList<>(List.of(tool("java"), "-XX:SharedArchiveFile=application.jsa"));
+        if (this.mode.equals("cds-aot")) {
+            this.command.add("-Dspring.aot.enabled=true");
+        }
+        this.command.addAll(List.of("-cp", "application.jar:lib/*", MAIN_CLASS));
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        this.process.destroy();
+        this.process.waitFor();
+    }
+
+    @Benchmark
+    public int firstRequest() throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        List<String> command = new ArrayList<>(this.command);
+        command.add("--server.port=" + port);
+        command.add("--jwt.secret=" + JWT_SECRET);
+        command.add("--spring.datasource.url=" + System.getProperty("benchmark.jdbc-url"));
+        command.add("--spring.datasource.username=" + System.getProperty("benchmark.username", "postgres"));
+        command.add("--spring.datasource.password=" + System.getProperty("benchmark.password", ""));
+
+        this.process = new ProcessBuilder(command)
+            .directory(this.directory.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + FIRST_REQUEST)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+
+        while (System.nanoTime() < deadline && this.process.isAlive()) {
+            try {
+                return this.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (ConnectException e) {
+                Thread.sleep(5L); // Not listening yet
+            }
+        }
+
+        throw new IllegalStateException("No response within " + STARTUP_TIMEOUT + ", exit code " + this.process.exitValue());
+    }
+
+    private void run(String... command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+            .directory(this.directory.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(String.join(" ", command) + " exited with " + process.exitValue());
+        }
+    }
+
+    private static String tool(String name) {
+        return Path.of(System.getProperty("java.home"), "bin", name).toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StartupBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package me.thomazz.userservice.test.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import me.thomazz.userservice.dto.UserDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Not picked up by surefire, run main() on the test classpath.
+// Serializes and parses a listing page in each content type the user endpoints negotiate, the payload size
+// of every format is printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDtoSerializationBenchmark {
+    private static final TypeReference<List<UserDto>> USERS_TYPE = new TypeReference<>() {};
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"100"})
+    private int pageSize;
+
+    private ObjectMapper mapper;
+    private List<UserDto> users;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.mapper = switch (this.format) {
+            case "smile" -> new SmileMapper();
+            case "cbor" -> new CBORMapper();
+            default -> new ObjectMapper();
+        };
+
+        this.users = LongStream.rangeClosed(1L, this.pageSize)
+            .mapToObj(id -> new UserDto(id, "user" + id, id % 3L))
+            .toList();
+        this.payload = this.mapper.writeValueAsBytes(this.users);
+
+        System.out.println(this.format + ": " + this.payload.length + " bytes for " + this.pageSize + " users");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return this.mapper.writeValueAsBytes(this.users);
+    }
+
+    @Benchmark
+    public List<UserDto> deserialize() throws IOException {
+        return this.mapper.readValue(this.payload, USERS_TYPE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserDtoSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,62 @@
+package me.thomazz.userservice.test.benchmark;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import me.thomazz.userservice.jwt.HmacJwtSigner;
+import me.thomazz.userservice.service.UserJwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Not picked up by surefire, run main() on the test classpath
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserJwtServiceBenchmark {
+    private final String secret = "EOwOOG2hds94sChfQqm92yQlahx02KOPPbVEw4SQuLY=";
+    private final Clock clock = Clock.systemUTC();
+    private final Duration expiration = Duration.ofMinutes(15L);
+    private final SecretKey key = Keys.hmacShaKeyFor(this.secret.getBytes());
+    private final UserJwtService jwtService = new UserJwtService(new HmacJwtSigner(this.secret), this.expiration.toString(), this.clock);
+
+    @Benchmark
+    public String jjwtBuilder() {
+        long userId = 1L;
+        return Jwts.builder()
+            .setClaims(Map.of("id", userId))
+            .setSubject(Long.toString(userId))
+            .setIssuedAt(Date.from(this.clock.instant()))
+            .setExpiration(Date.from(Instant.now(this.clock).plus(this.expiration)))
+            .signWith(this.key)
+            .compact();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return this.jwtService.generateToken(1L);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserJwtServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
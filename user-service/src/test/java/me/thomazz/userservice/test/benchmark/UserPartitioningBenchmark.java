@@ -0,0 +1,176 @@
+package me.thomazz.userservice.test.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Not picked up by surefire, run main() on the test classpath.
+// Compares registration inserts and login lookups on a single users table with a unique username index
+// against the hash partitioned users table with the separate usernames table. Only meaningful on Postgres,
+// point it there with -Dbenchmark.jdbc-url=jdbc:postgresql://host/db -Dbenchmark.username=... -Dbenchmark.password=...
+// Without it an in-memory H2 database is used, where the partitioned layout is the same tables without partitions.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class UserPartitioningBenchmark {
+    private static final int USERS = 100_000;
+    private static final int PARTITIONS = 8;
+    private static final String PASSWORD = "$2a$10$abcdefghijklmnopqrstuv";
+
+    @Param({"single", "partitioned"})
+    private String layout;
+
+    private HikariDataSource dataSource;
+    private final AtomicLong nextId = new AtomicLong(USERS);
+    private String insertUser;
+    private String findByUsername;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        String url = System.getProperty("benchmark.jdbc-url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        boolean postgres = url.startsWith("jdbc:postgresql:");
+        boolean partitioned = this.layout.equals("partitioned");
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(System.getProperty("benchmark.username", "sa"));
+        config.setPassword(System.getProperty("benchmark.password", ""));
+        config.setMaximumPoolSize(8);
+        config.setMinimumIdle(8);
+
+        if (postgres) {
+            config.addDataSourceProperty("prepareThreshold", 1);
+            config.addDataSourceProperty("reWriteBatchedInserts", true);
+        }
+
+        this.dataSource = new HikariDataSource(config);
+        this.insertUser = "INSERT INTO benchmark_users (id, username, password) VALUES (?, ?, ?)";
+        this.findByUsername = partitioned
+            ? "SELECT u.id, u.password, u.username FROM benchmark_users u "
+                + "JOIN benchmark_usernames n ON n.user_id = u.id WHERE n.username = ?"
+            : "SELECT u.id, u.password, u.username FROM benchmark_users u WHERE u.username = ?";
+
+        try (Connection connection = this.dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS benchmark_usernames");
+            statement.execute("DROP TABLE IF EXISTS benchmark_users");
+
+            if (!partitioned) {
+                statement.execute("CREATE TABLE benchmark_users (id BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL)");
+                statement.execute("CREATE UNIQUE INDEX benchmark_user_username_index ON benchmark_users (username)");
+            } else {
+                statement.execute("CREATE TABLE benchmark_users (id BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL)"
+                    + (postgres ? " PARTITION BY HASH (id)" : ""));
+
+                for (int i = 0; postgres && i < PARTITIONS; i++) {
+                    statement.execute("CREATE TABLE benchmark_users_p" + i + " PARTITION OF benchmark_users "
+                        + "FOR VALUES WITH (MODULUS " + PARTITIONS + ", REMAINDER " + i + ")");
+                }
+
+                statement.execute("CREATE TABLE benchmark_usernames (user_id BIGINT PRIMARY KEY REFERENCES benchmark_users (id) ON DELETE CASCADE, username VARCHAR(255) NOT NULL)");
+                statement.execute("CREATE UNIQUE INDEX benchmark_username_index ON benchmark_usernames (username)");
+            }
+
+            connection.setAutoCommit(false);
+            for (int i = 0; i < USERS; i += 1000) {
+                this.insertBatch(connection, i, Math.min(i + 1000, USERS));
+            }
+            connection.commit();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.dataSource.close();
+    }
+
+    // Same statements as a registration, in one transaction per user
+    @Benchmark
+    public long register() throws SQLException {
+        long id = this.nextId.getAndIncrement();
+
+        try (Connection connection = this.dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            this.insertBatch(connection, id, id + 1);
+            connection.commit();
+        }
+
+        return id;
+    }
+
+    @Benchmark
+    public long findByUsername() throws SQLException {
+        return this.query(this.findByUsername, "user" + ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    @Benchmark
+    public long findById() throws SQLException {
+        return this.query("SELECT u.id, u.password, u.username FROM benchmark_users u WHERE u.id = ?",
+            (long) ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    private void insertBatch(Connection connection, long from, long to) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(this.insertUser)) {
+            for (long id = from; id < to; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "user" + id);
+                insert.setString(3, PASSWORD);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        if (this.layout.equals("partitioned")) {
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO benchmark_usernames (user_id, username) VALUES (?, ?)")) {
+                for (long id = from; id < to; id++) {
+                    insert.setLong(1, id);
+                    insert.setString(2, "user" + id);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private long query(String sql, Object parameter) throws SQLException {
+        try (Connection connection = this.dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, parameter);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : -1L;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserPartitioningBenchmark.class.getSimpleName()).build()).run();
+    }
+}
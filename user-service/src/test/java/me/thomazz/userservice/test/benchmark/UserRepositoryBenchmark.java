@@ -0,0 +1,118 @@
+package me.thomazz.userservice.test.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Not picked up by surefire, run main() on the test classpath.
+// Compares pgjdbc prepare thresholds on the statements Hibernate issues for UserRepository, point it at
+// Postgres with -Dbenchmark.jdbc-url=jdbc:postgresql://host/db -Dbenchmark.username=... -Dbenchmark.password=...
+// Without it an in-memory H2 database is used, where the threshold has no effect.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class UserRepositoryBenchmark {
+    private static final int USERS = 10_000;
+    private static final String FIND_BY_USERNAME =
+        "select u1_0.id,u1_0.password,u1_0.username from benchmark_users u1_0 where u1_0.username=?";
+    private static final String FIND_BY_ID =
+        "select u1_0.id,u1_0.password,u1_0.username from benchmark_users u1_0 where u1_0.id=?";
+
+    @Param({"0", "1", "5"}) // 0 never prepares server side, 5 is the pgjdbc default
+    private int prepareThreshold;
+
+    private HikariDataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        String url = System.getProperty("benchmark.jdbc-url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(System.getProperty("benchmark.username", "sa"));
+        config.setPassword(System.getProperty("benchmark.password", ""));
+        config.setMaximumPoolSize(8);
+        config.setMinimumIdle(8);
+
+        if (url.startsWith("jdbc:postgresql:")) {
+            config.addDataSourceProperty("prepareThreshold", this.prepareThreshold);
+            config.addDataSourceProperty("preparedStatementCacheQueries", 256);
+            config.addDataSourceProperty("reWriteBatchedInserts", true);
+        }
+
+        this.dataSource = new HikariDataSource(config);
+
+        try (Connection connection = this.dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS benchmark_users");
+            statement.execute("CREATE TABLE benchmark_users (id BIGINT PRIMARY KEY, username VARCHAR(255) UNIQUE, password VARCHAR(255))");
+
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO benchmark_users VALUES (?, ?, ?)")) {
+                for (int i = 0; i < USERS; i++) {
+                    insert.setLong(1, i);
+                    insert.setString(2, "user" + i);
+                    insert.setString(3, "$2a$10$abcdefghijklmnopqrstuv");
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.dataSource.close();
+    }
+
+    @Benchmark
+    public long findByUsername() throws SQLException {
+        return this.query(FIND_BY_USERNAME, "user" + ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    @Benchmark
+    public long findById() throws SQLException {
+        return this.query(FIND_BY_ID, (long) ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    // Same pattern as Hibernate: borrow, prepare, execute, close per call
+    private long query(String sql, Object parameter) throws SQLException {
+        try (Connection connection = this.dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, parameter);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : -1L;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserRepositoryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
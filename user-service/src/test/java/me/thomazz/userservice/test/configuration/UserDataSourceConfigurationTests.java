@@ -0,0 +1,49 @@
+package me.thomazz.userservice.test.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import me.thomazz.userservice.UserApplication;
+import me.thomazz.userservice.configuration.UserDataSourceConfiguration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = UserApplication.class, properties = "datasource.pool.size=3")
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserDataSourceConfigurationTests {
+    private final DataSource dataSource;
+
+    @Test
+    @Order(1)
+    @DisplayName("Pool size - Derived from cores")
+    public void testPoolSizeDerivedFromCores() {
+        assertThat(UserDataSourceConfiguration.poolSize(4, 100, 10, 1)).isEqualTo(9);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Pool size - Capped by database connections")
+    public void testPoolSizeCappedByDatabase() {
+        assertThat(UserDataSourceConfiguration.poolSize(16, 100, 10, 6)).isEqualTo(15);
+        assertThat(UserDataSourceConfiguration.poolSize(16, 10, 10, 6)).isEqualTo(1);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Pool size - Applied to data source")
+    public void testPoolSizeApplied() {
+        HikariDataSource hikari = (HikariDataSource) this.dataSource;
+
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(3);
+        assertThat(hikari.getMinimumIdle()).isEqualTo(3);
+    }
+}
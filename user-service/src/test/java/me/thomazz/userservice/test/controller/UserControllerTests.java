@@ -1,14 +1,30 @@
 package me.thomazz.userservice.test.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import jakarta.servlet.http.Cookie;
 import lombok.RequiredArgsConstructor;
+import me.thomazz.userservice.configuration.UserConfiguration;
+import me.thomazz.userservice.controller.UserController;
 import me.thomazz.userservice.dto.UserByIdRequest;
 import me.thomazz.userservice.dto.UserDeleteByIdRequest;
 import me.thomazz.userservice.dto.UserDto;
 import me.thomazz.userservice.dto.UserGetAllRequest;
 import me.thomazz.userservice.dto.UserLoginRequest;
 import me.thomazz.userservice.dto.UserRegisterRequest;
+import me.thomazz.userservice.dto.UserRevalidateRequest;
+import me.thomazz.userservice.dto.UserRevalidationDto;
+import me.thomazz.userservice.dto.UserTokensDto;
+import me.thomazz.userservice.dto.UserVersionDto;
+import me.thomazz.userservice.exception.LoginThrottledException;
+import me.thomazz.userservice.exception.UserNotFoundException;
+import me.thomazz.userservice.exception.UserPageSizeLimitExceededException;
+import me.thomazz.userservice.service.UserSearchPage;
+import me.thomazz.userservice.service.UserSearchService;
 import me.thomazz.userservice.service.UserService;
+import me.thomazz.userservice.test.identity.UserIdentityArgumentResolverTests;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -18,22 +34,36 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest
+@WebMvcTest(UserController.class)
+@Import(UserConfiguration.class)
 @AutoConfigureMockMvc
 @TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -44,6 +74,9 @@ public class UserControllerTests {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserSearchService userSearchService;
+
     @Test
     @Order(1)
     @DisplayName("Get all users")
@@ -60,7 +93,10 @@ public class UserControllerTests {
             .username("test2")
             .build();
 
-        when(this.userService.getAllUsers(pageable)).thenReturn(List.of(user1, user2));
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<UserDto>>>getArgument(1).accept(List.of(user1, user2));
+            return null;
+        }).when(this.userService).forEachUserChunk(eq(pageable), any());
 
         UserGetAllRequest request = UserGetAllRequest.builder()
             .pageNumber(0)
@@ -154,7 +190,7 @@ public class UserControllerTests {
     @Order(5)
     @DisplayName("Login user")
     public void testLoginUser() throws Exception {
-        when(this.userService.loginUser("test", "testing")).thenReturn("token");
+        when(this.userService.loginUser("test", "testing", "127.0.0.1")).thenReturn(new UserTokensDto("token", "refresh"));
 
         UserLoginRequest request = UserLoginRequest.builder()
             .username("test")
@@ -167,6 +203,225 @@ public class UserControllerTests {
                     .content(this.mapper.writeValueAsString(request))
             )
             .andExpect(status().isOk())
-            .andExpect(cookie().value("spring_kube_infra_login_token", "token"));
+            .andExpect(cookie().value("spring_kube_infra_login_token", "token"))
+            .andExpect(cookie().value("spring_kube_infra_refresh_token", "refresh"))
+            .andExpect(cookie().path("spring_kube_infra_refresh_token", "/api/v1/users/refresh"));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Refresh user")
+    public void testRefreshUser() throws Exception {
+        when(this.userService.refreshUser("refresh")).thenReturn(new UserTokensDto("token", "refresh2"));
+
+        this.mockMvc.perform(
+                post("/api/v1/users/refresh")
+                    .cookie(new Cookie("spring_kube_infra_refresh_token", "refresh"))
+            )
+            .andExpect(status().isOk())
+            .andExpect(cookie().value("spring_kube_infra_login_token", "token"))
+            .andExpect(cookie().value("spring_kube_infra_refresh_token", "refresh2"));
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("Get current user")
+    public void testGetCurrentUser() throws Exception {
+        UserDto user = UserDto.builder()
+            .id(1L)
+            .username("test")
+            .build();
+
+        when(this.userService.getUserById(1L)).thenReturn(user);
+
+        String identity = UserIdentityArgumentResolverTests.sign(
+            "Pz2mV0bPq7oX3uF1s8yN5tR6wK9cJ4hA",
+            "1." + Instant.now().plus(Duration.ofMinutes(15L)).getEpochSecond()
+        );
+
+        this.mockMvc.perform(get("/api/v1/users/me").header("X-User-Identity", identity))
+            .andExpect(status().isOk())
+            .andExpect(content().json(this.mapper.writeValueAsString(user)));
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Get current user - Unauthorized")
+    public void testGetCurrentUserUnauthorized() throws Exception {
+        this.mockMvc.perform(get("/api/v1/users/me"))
+            .andExpect(status().isUnauthorized());
+
+        this.mockMvc.perform(get("/api/v1/users/me").header("X-User-Identity", "1.99999999999.forged"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("Search users")
+    public void testSearchUsers() throws Exception {
+        List<UserDto> prefixMatches = List.of(new UserDto(1L, "Test1"), new UserDto(2L, "test2"));
+        List<UserDto> fuzzyMatches = List.of(new UserDto(3L, "tset"));
+
+        when(this.userSearchService.searchByPrefix("te", 2, "cursor")).thenReturn(new UserSearchPage(prefixMatches, "next"));
+        when(this.userSearchService.searchFuzzy("tset", 20)).thenReturn(fuzzyMatches);
+
+        this.mockMvc.perform(get("/api/v1/users/search").param("prefix", "te").param("limit", "2").param("after", "cursor"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(UserController.NEXT_CURSOR_HEADER, "next"))
+            .andExpect(content().json(this.mapper.writeValueAsString(prefixMatches)));
+
+        this.mockMvc.perform(get("/api/v1/users/search").param("query", "tset"))
+            .andExpect(status().isOk())
+            .andExpect(content().json(this.mapper.writeValueAsString(fuzzyMatches)));
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Search users - Missing prefix and query")
+    public void testSearchUsersInvalid() throws Exception {
+        this.mockMvc.perform(get("/api/v1/users/search"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("Get users - Keyset page with ETag")
+    public void testGetUsersAfter() throws Exception {
+        List<UserDto> users = List.of(new UserDto(3L, "test3"), new UserDto(4L, "test4"));
+        when(this.userService.getUsersAfter(2L, 2)).thenReturn(users);
+
+        String etag = this.mockMvc.perform(get("/api/v1/users").param("limit", "2").param("after", "2"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+            .andExpect(content().json(this.mapper.writeValueAsString(users)))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(get("/api/v1/users").param("limit", "2").param("after", "2").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("Get user - Not modified")
+    public void testGetUserNotModified() throws Exception {
+        UserDto user = new UserDto(1L, "test");
+        when(this.userService.getUserById(1L)).thenReturn(user);
+
+        String etag = this.mockMvc.perform(get("/api/v1/users/1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1.0\""))
+            .andExpect(content().json(this.mapper.writeValueAsString(user)))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(get("/api/v1/users/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // An update moves the version
+        when(this.userService.getUserById(1L)).thenReturn(new UserDto(1L, "renamed", 1L));
+
+        this.mockMvc.perform(get("/api/v1/users/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("Get user - Not found")
+    public void testGetUserNotFound() throws Exception {
+        when(this.userService.getUserById(1L)).thenThrow(new UserNotFoundException());
+
+        this.mockMvc.perform(get("/api/v1/users/1"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("Revalidate users")
+    public void testRevalidateUsers() throws Exception {
+        List<UserVersionDto> known = List.of(new UserVersionDto(1L, 0L), new UserVersionDto(2L, 0L));
+        UserRevalidationDto revalidation = UserRevalidationDto.builder()
+            .changed(List.of(new UserDto(1L, "renamed", 1L)))
+            .deleted(List.of(2L))
+            .build();
+
+        when(this.userService.revalidateUsers(known)).thenReturn(revalidation);
+
+        this.mockMvc.perform(
+                post("/api/v1/users/revalidate")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.mapper.writeValueAsString(new UserRevalidateRequest(known)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().json(this.mapper.writeValueAsString(revalidation)));
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("Get users - Binary content types")
+    public void testGetUsersBinary() throws Exception {
+        List<UserDto> users = List.of(new UserDto(1L, "test1"), new UserDto(2L, "test2"));
+        when(this.userService.getUsersAfter(0L, 2)).thenReturn(users);
+
+        byte[] smile = this.mockMvc.perform(get("/api/v1/users").param("limit", "2").accept("application/x-jackson-smile"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-jackson-smile"))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] cbor = this.mockMvc.perform(get("/api/v1/users").param("limit", "2").accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        TypeReference<List<UserDto>> type = new TypeReference<>() {};
+        assertThat(new SmileMapper().readValue(smile, type)).isEqualTo(users);
+        assertThat(new CBORMapper().readValue(cbor, type)).isEqualTo(users);
+        assertThat(smile.length).isLessThan(this.mapper.writeValueAsBytes(users).length);
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("Get all users - Page size limit exceeded before streaming")
+    public void testGetAllUsersPageSizeLimitExceeded() throws Exception {
+        Pageable pageable = PageRequest.of(0, 1000);
+        doThrow(new UserPageSizeLimitExceededException()).when(this.userService).checkPageSize(pageable);
+
+        this.mockMvc.perform(
+                get("/api/v1/users")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.mapper.writeValueAsString(UserGetAllRequest.builder().pageNumber(0).pageSize(1000).build()))
+            )
+            .andExpect(status().isBadRequest());
+
+        verify(this.userService, never()).forEachUserChunk(any(), any());
+    }
+
+    @Test
+    @Order(17)
+    @DisplayName("Login user - Address forwarded by the gateway")
+    public void testLoginUserForwardedAddress() throws Exception {
+        when(this.userService.loginUser("test", "testing", "203.0.113.7")).thenReturn(new UserTokensDto("token", "refresh"));
+
+        this.mockMvc.perform(
+                post("/api/v1/users/login")
+                    .header("X-Forwarded-For", "10.0.0.1, 203.0.113.7")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.mapper.writeValueAsString(UserLoginRequest.builder().username("test").password("testing").build()))
+            )
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Order(18)
+    @DisplayName("Login user - Throttled")
+    public void testLoginUserThrottled() throws Exception {
+        when(this.userService.loginUser("test", "testing", "127.0.0.1")).thenThrow(new LoginThrottledException());
+
+        this.mockMvc.perform(
+                post("/api/v1/users/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.mapper.writeValueAsString(UserLoginRequest.builder().username("test").password("testing").build()))
+            )
+            .andExpect(status().isTooManyRequests());
     }
 }
@@ -0,0 +1,152 @@
+package me.thomazz.userservice.test.grpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import me.thomazz.userservice.dto.UserDto;
+import me.thomazz.userservice.exception.UserNotFoundException;
+import me.thomazz.userservice.grpc.UserLookupGrpcService;
+import me.thomazz.userservice.grpc.proto.BatchGetUsersRequest;
+import me.thomazz.userservice.grpc.proto.GetUserRequest;
+import me.thomazz.userservice.grpc.proto.ListUsersRequest;
+import me.thomazz.userservice.grpc.proto.User;
+import me.thomazz.userservice.grpc.proto.UserLookupGrpc;
+import me.thomazz.userservice.repository.UserRepository;
+import me.thomazz.userservice.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class UserLookupGrpcServiceTests {
+    private static final int PAGE_SIZE = 2;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private Server server;
+    private ManagedChannel channel;
+    private UserLookupGrpc.UserLookupBlockingStub stub;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+
+        this.server = InProcessServerBuilder.forName(name)
+            .addService(new UserLookupGrpcService(this.userService, this.userRepository, PAGE_SIZE, 3))
+            .build()
+            .start();
+        this.channel = InProcessChannelBuilder.forName(name).build();
+        this.stub = UserLookupGrpc.newBlockingStub(this.channel);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.channel.shutdownNow();
+        this.server.shutdownNow();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Get user")
+    public void testGetUser() {
+        when(this.userService.getUserById(1L)).thenReturn(new UserDto(1L, "test", 2L));
+
+        User user = this.stub.getUser(GetUserRequest.newBuilder().setId(1L).build());
+
+        assertThat(user).isEqualTo(User.newBuilder().setId(1L).setUsername("test").setVersion(2L).build());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Get user - Not found")
+    public void testGetUserNotFound() {
+        when(this.userService.getUserById(1L)).thenThrow(new UserNotFoundException());
+
+        assertThatExceptionOfType(StatusRuntimeException.class)
+            .isThrownBy(() -> this.stub.getUser(GetUserRequest.newBuilder().setId(1L).build()))
+            .matches(e -> e.getStatus().getCode() == Status.Code.NOT_FOUND);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Batch get users - Unknown ids left out")
+    public void testBatchGetUsers() {
+        when(this.userRepository.findAllListedByIds(Set.of(1L, 2L)))
+            .thenReturn(List.of(new UserDto(1L, "test1")));
+
+        List<User> users = this.stub.batchGetUsers(BatchGetUsersRequest.newBuilder().addAllIds(List.of(1L, 2L, 1L)).build())
+            .getUsersList();
+
+        assertThat(users).extracting(User::getId).containsExactly(1L);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Batch get users - Too many ids")
+    public void testBatchGetUsersTooMany() {
+        BatchGetUsersRequest request = BatchGetUsersRequest.newBuilder().addAllIds(List.of(1L, 2L, 3L, 4L)).build();
+
+        assertThatExceptionOfType(StatusRuntimeException.class)
+            .isThrownBy(() -> this.stub.batchGetUsers(request))
+            .matches(e -> e.getStatus().getCode() == Status.Code.INVALID_ARGUMENT);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("List users - Streams every page")
+    public void testListUsers() {
+        when(this.userService.getUsersAfter(0L, PAGE_SIZE)).thenReturn(users(1L, 2L));
+        when(this.userService.getUsersAfter(2L, PAGE_SIZE)).thenReturn(users(3L, 4L));
+        when(this.userService.getUsersAfter(4L, PAGE_SIZE)).thenReturn(users(5L, 5L));
+
+        List<Long> ids = new ArrayList<>();
+        this.stub.listUsers(ListUsersRequest.getDefaultInstance()).forEachRemaining(user -> ids.add(user.getId()));
+
+        assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("List users - Limit")
+    public void testListUsersLimit() {
+        when(this.userService.getUsersAfter(10L, PAGE_SIZE)).thenReturn(users(11L, 12L));
+        when(this.userService.getUsersAfter(12L, 1)).thenReturn(users(13L, 13L));
+
+        List<Long> ids = new ArrayList<>();
+        this.stub.listUsers(ListUsersRequest.newBuilder().setAfterId(10L).setLimit(3).build())
+            .forEachRemaining(user -> ids.add(user.getId()));
+
+        assertThat(ids).containsExactly(11L, 12L, 13L);
+        verify(this.userService).getUsersAfter(12L, 1);
+    }
+
+    private static List<UserDto> users(long from, long to) {
+        return LongStream.rangeClosed(from, to).mapToObj(id -> new UserDto(id, "test" + id)).toList();
+    }
+}
@@ -0,0 +1,74 @@
+package me.thomazz.userservice.test.identity;
+
+import me.thomazz.userservice.exception.UserIdentityInvalidException;
+import me.thomazz.userservice.identity.UserIdentity;
+import me.thomazz.userservice.identity.UserIdentityArgumentResolver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class UserIdentityArgumentResolverTests {
+    private static final String SECRET = "Pz2mV0bPq7oX3uF1s8yN5tR6wK9cJ4hA";
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochSecond(1000L), ZoneOffset.UTC);
+    private final UserIdentityArgumentResolver resolver = new UserIdentityArgumentResolver(SECRET, this.clock);
+
+    @Test
+    @Order(1)
+    @DisplayName("Verify identity - Valid")
+    public void testVerifyValid() throws Exception {
+        assertThat(this.resolver.verify(sign(SECRET, "1.1900"))).isEqualTo(new UserIdentity(1L, 1900L));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Verify identity - Expired")
+    public void testVerifyExpired() throws Exception {
+        String header = sign(SECRET, "1.999");
+
+        assertThatExceptionOfType(UserIdentityInvalidException.class).isThrownBy(() -> this.resolver.verify(header));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Verify identity - Forged")
+    public void testVerifyForged() throws Exception {
+        String otherSecret = sign("other-secret", "1.1900");
+        String otherSubject = sign(SECRET, "1.1900").replaceFirst("1", "2");
+
+        assertThatExceptionOfType(UserIdentityInvalidException.class).isThrownBy(() -> this.resolver.verify(otherSecret));
+        assertThatExceptionOfType(UserIdentityInvalidException.class).isThrownBy(() -> this.resolver.verify(otherSubject));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Verify identity - Malformed")
+    public void testVerifyMalformed() {
+        assertThatExceptionOfType(UserIdentityInvalidException.class).isThrownBy(() -> this.resolver.verify(null));
+        assertThatExceptionOfType(UserIdentityInvalidException.class).isThrownBy(() -> this.resolver.verify("1"));
+        assertThatExceptionOfType(UserIdentityInvalidException.class).isThrownBy(() -> this.resolver.verify("1.1900"));
+        assertThatExceptionOfType(UserIdentityInvalidException.class).isThrownBy(() -> this.resolver.verify("a.b.c"));
+    }
+
+    public static String sign(String secret, String content) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+
+        byte[] signature = mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        return content + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+}
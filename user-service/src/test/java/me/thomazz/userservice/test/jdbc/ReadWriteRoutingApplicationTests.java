@@ -0,0 +1,78 @@
+package me.thomazz.userservice.test.jdbc;
+
+import lombok.RequiredArgsConstructor;
+import me.thomazz.userservice.UserApplication;
+import me.thomazz.userservice.jdbc.DataSourceRouting;
+import me.thomazz.userservice.jdbc.ReadWriteRoutingDataSource;
+import me.thomazz.userservice.login.UsernameFilter;
+import me.thomazz.userservice.service.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Same H2 database under a second URL stands in for a replica
+@SpringBootTest(
+    classes = UserApplication.class,
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "datasource.replicas=jdbc:h2:mem:routing;IFEXISTS=TRUE"
+    }
+)
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ReadWriteRoutingApplicationTests {
+    private final DataSource dataSource;
+    private final UserService userService;
+    private final UsernameFilter usernameFilter;
+
+    @Test
+    @Order(1)
+    @DisplayName("Replicas configured - Routed data source")
+    public void testReplicasConfiguredRouted() {
+        assertThat(this.dataSource).isInstanceOf(ReadWriteRoutingDataSource.class);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Write then read only - Sees the write")
+    public void testWriteThenReadOnly() {
+        this.userService.registerUser("routed", "testing");
+
+        assertThat(this.userService.getAllUsers(PageRequest.of(0, 10)))
+            .anyMatch(user -> user.getUsername().equals("routed"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Login - Caller not pinned to the primary")
+    public void testLoginDoesNotPin() {
+        this.userService.registerUser("pinned", "testing");
+        this.usernameFilter.pollNewUsers();
+        AtomicInteger writes = new AtomicInteger();
+
+        DataSourceRouting.begin(false, writes::incrementAndGet);
+        try {
+            this.userService.loginUser("pinned", "testing", "127.0.0.1");
+
+            assertThat(writes).hasValue(0);
+            assertThat(DataSourceRouting.isPinnedToPrimary()).isFalse();
+
+            this.userService.registerUser("pinned2", "testing");
+
+            assertThat(writes).hasValue(1);
+            assertThat(DataSourceRouting.isPinnedToPrimary()).isTrue();
+        } finally {
+            DataSourceRouting.end();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package me.thomazz.userservice.test.jdbc;
+
+import me.thomazz.userservice.jdbc.DataSourceRouting;
+import me.thomazz.userservice.jdbc.ReadWriteRoutingDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class ReadWriteRoutingDataSourceTests {
+    private final AtomicInteger writes = new AtomicInteger();
+
+    private ReadWriteRoutingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readTransaction;
+
+    @BeforeEach
+    public void setup() {
+        this.dataSource = new ReadWriteRoutingDataSource(
+            this.database("primary"),
+            List.of(this.database("replica1"), this.database("replica2"))
+        );
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(this.dataSource);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+
+        DataSourceRouting.begin(false, this.writes::incrementAndGet);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        DataSourceRouting.end();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Read only transaction - Replicas in turn")
+    public void testReadOnlyGoesToReplicas() {
+        assertThat(this.read()).isEqualTo("REPLICA1");
+        assertThat(this.read()).isEqualTo("REPLICA2");
+        assertThat(this.writes).hasValue(0);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Write transaction - Primary")
+    public void testWriteGoesToPrimary() {
+        assertThat(this.write()).isEqualTo("PRIMARY");
+        assertThat(this.writes).hasValue(1);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Read after write - Primary")
+    public void testReadAfterWriteGoesToPrimary() {
+        this.write();
+
+        assertThat(this.read()).isEqualTo("PRIMARY");
+        assertThat(this.writes).hasValue(1);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Pinned caller - Primary")
+    public void testPinnedCallerGoesToPrimary() {
+        DataSourceRouting.begin(true, this.writes::incrementAndGet);
+
+        assertThat(this.read()).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Reads on the primary - Caller not pinned")
+    public void testOnPrimaryLeavesCallerUnpinned() {
+        assertThat(DataSourceRouting.onPrimary(this::read)).isEqualTo("PRIMARY");
+
+        assertThat(this.read()).isEqualTo("REPLICA1");
+        assertThat(this.writes).hasValue(0);
+    }
+
+    private String read() {
+        return this.readTransaction.execute(status -> this.database());
+    }
+
+    private String write() {
+        return this.writeTransaction.execute(status -> this.database());
+    }
+
+    private String database() {
+        return this.jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    private DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+}
@@ -0,0 +1,68 @@
+package me.thomazz.userservice.test.jdbc;
+
+import jakarta.servlet.http.Cookie;
+import me.thomazz.userservice.jdbc.DataSourceRouting;
+import me.thomazz.userservice.jdbc.ReadYourWritesFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class ReadYourWritesFilterTests {
+    private final Clock clock = Clock.fixed(Instant.ofEpochSecond(1000L), ZoneOffset.UTC);
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5L), this.clock);
+
+    @Test
+    @Order(1)
+    @DisplayName("Write - Sets primary cookie")
+    public void testWriteSetsCookie() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        this.filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> DataSourceRouting.recordWrite());
+
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.PRIMARY_COOKIE);
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getValue()).isEqualTo("1005000");
+        assertThat(DataSourceRouting.isPinnedToPrimary()).isFalse();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Recent write - Pinned to primary")
+    public void testRecentWritePinned() throws Exception {
+        AtomicBoolean pinned = new AtomicBoolean();
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWritesFilter.PRIMARY_COOKIE, "1000001"));
+
+        this.filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> pinned.set(DataSourceRouting.isPinnedToPrimary()));
+
+        assertThat(pinned).isTrue();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Old write - Not pinned")
+    public void testOldWriteNotPinned() throws Exception {
+        AtomicBoolean pinned = new AtomicBoolean(true);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWritesFilter.PRIMARY_COOKIE, "1000000"));
+
+        this.filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> pinned.set(DataSourceRouting.isPinnedToPrimary()));
+
+        assertThat(pinned).isFalse();
+    }
+}
@@ -0,0 +1,74 @@
+package me.thomazz.userservice.test.jwt;
+
+import me.thomazz.userservice.jwt.JwtKeyRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class JwtKeyRingTests {
+    private String keys;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        this.keys = this.generateKey("key-1") + "," + this.generateKey("key-2");
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Active key")
+    public void testActiveKey() {
+        JwtKeyRing keyRing = new JwtKeyRing(this.keys, "key-2");
+
+        assertThat(keyRing.getActiveKey().getId()).isEqualTo("key-2");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Active key - Not configured")
+    public void testActiveKeyNotConfigured() {
+        JwtKeyRing keyRing = new JwtKeyRing(this.keys, "key-3");
+
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(keyRing::getActiveKey);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("JWKS publishes every key")
+    @SuppressWarnings("unchecked")
+    public void testJwks() {
+        JwtKeyRing keyRing = new JwtKeyRing(this.keys, "key-1");
+
+        List<Map<String, String>> jwks = (List<Map<String, String>>) keyRing.getJwks().get("keys");
+
+        assertThat(jwks).extracting(jwk -> jwk.get("kid")).containsExactly("key-1", "key-2");
+        assertThat(jwks).allSatisfy(jwk -> {
+            assertThat(jwk.get("kty")).isEqualTo("EC");
+            assertThat(Base64.getUrlDecoder().decode(jwk.get("x"))).hasSize(32);
+            assertThat(Base64.getUrlDecoder().decode(jwk.get("y"))).hasSize(32);
+        });
+    }
+
+    private String generateKey(String id) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+
+        Base64.Encoder encoder = Base64.getEncoder();
+        return id + ":" + encoder.encodeToString(keyPair.getPrivate().getEncoded())
+            + ":" + encoder.encodeToString(keyPair.getPublic().getEncoded());
+    }
+}
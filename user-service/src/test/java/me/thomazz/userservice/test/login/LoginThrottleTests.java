@@ -0,0 +1,132 @@
+package me.thomazz.userservice.test.login;
+
+import me.thomazz.userservice.exception.LoginThrottledException;
+import me.thomazz.userservice.login.LoginThrottle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class LoginThrottleTests {
+    private static final long WINDOW = Duration.ofMinutes(15L).toMillis();
+    private static final int TRACKED = 1024;
+
+    @Mock
+    private Clock clock;
+
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    public void setup() {
+        lenient().when(this.clock.millis()).thenReturn(WINDOW * 10L);
+        this.throttle = new LoginThrottle(this.clock, Duration.ofMillis(WINDOW), 3, 5, Duration.ofSeconds(1L), Duration.ofMinutes(15L), TRACKED);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Throttle - Free attempts")
+    public void testFreeAttempts() {
+        this.fail("test", "address", 2);
+
+        assertThatNoException().isThrownBy(() -> this.throttle.check("test", "address"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Throttle - Account backoff doubles")
+    public void testAccountBackoff() {
+        long start = WINDOW * 10L;
+        this.fail("test", "address", 3);
+
+        this.assertThrottled("test", "other");
+        this.at(start + 1_000L);
+        assertThatNoException().isThrownBy(() -> this.throttle.check("test", "other"));
+
+        this.fail("test", "other", 1);
+        this.at(start + 2_999L);
+        this.assertThrottled("test", "other");
+        this.at(start + 3_000L);
+        assertThatNoException().isThrownBy(() -> this.throttle.check("test", "other"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Throttle - Address guessing many accounts")
+    public void testAddressBackoff() {
+        for (int i = 0; i < 5; i++) {
+            this.fail("test" + i, "address", 1);
+        }
+
+        this.assertThrottled("unrelated", "address");
+        assertThatNoException().isThrownBy(() -> this.throttle.check("unrelated", "other"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Throttle - Success clears the account")
+    public void testSuccessClearsAccount() {
+        this.fail("test", "address", 3);
+
+        this.throttle.recordSuccess("test");
+
+        assertThatNoException().isThrownBy(() -> this.throttle.check("test", "other"));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Throttle - Sliding window decays")
+    public void testSlidingWindow() {
+        this.fail("test", "address", 4);
+
+        this.at(WINDOW * 11L + WINDOW / 2L); // Half of the previous window still counts, 2 failures
+        assertThatNoException().isThrownBy(() -> this.throttle.check("test", "address"));
+
+        this.at(WINDOW * 12L);
+        this.throttle.purgeExpired();
+        assertThat(this.throttle.size()).isZero();
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Throttle - Bounded under many distinct names")
+    public void testBoundedUnderManyNames() {
+        this.fail("test", "address", 3);
+
+        for (int i = 0; i < TRACKED * 20; i++) {
+            this.throttle.recordFailure("sprayed" + i, "address" + i);
+        }
+
+        assertThat(this.throttle.size()).isLessThanOrEqualTo(TRACKED * 2);
+        this.assertThrottled("test", "other"); // Sprayed names with a single failure make way first
+    }
+
+    private void fail(String username, String address, int times) {
+        for (int i = 0; i < times; i++) {
+            this.throttle.recordFailure(username, address);
+        }
+    }
+
+    private void at(long millis) {
+        when(this.clock.millis()).thenReturn(millis);
+    }
+
+    private void assertThrottled(String username, String address) {
+        assertThatExceptionOfType(LoginThrottledException.class).isThrownBy(() -> this.throttle.check(username, address));
+    }
+}
@@ -0,0 +1,40 @@
+package me.thomazz.userservice.test.login;
+
+import me.thomazz.userservice.login.UsernameBloomFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class UsernameBloomFilterTests {
+    private static final int USERS = 10_000;
+
+    @Test
+    @Order(1)
+    @DisplayName("Bloom filter - No false negatives")
+    public void testNoFalseNegatives() {
+        UsernameBloomFilter filter = new UsernameBloomFilter(USERS, 0.01);
+        IntStream.range(0, USERS).forEach(i -> filter.add("user" + i));
+
+        assertThat(IntStream.range(0, USERS)).allMatch(i -> filter.mightContain("user" + i));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Bloom filter - False positive rate")
+    public void testFalsePositiveRate() {
+        UsernameBloomFilter filter = new UsernameBloomFilter(USERS, 0.01);
+        IntStream.range(0, USERS).forEach(i -> filter.add("user" + i));
+
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("other" + i)).count();
+
+        assertThat(falsePositives).isLessThan(1_000L);
+        assertThat(filter.bitSize()).isEqualTo(1L << 17); // 95851 bits rounded up
+    }
+}
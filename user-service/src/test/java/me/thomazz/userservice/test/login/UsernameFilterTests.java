@@ -0,0 +1,165 @@
+package me.thomazz.userservice.test.login;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.thomazz.userservice.dto.UserDto;
+import me.thomazz.userservice.jdbc.DataSourceRouting;
+import me.thomazz.userservice.login.UsernameFilter;
+import me.thomazz.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+
+import java.time.Clock;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class UsernameFilterTests {
+    private static final Limit PAGE = Limit.of(1000);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private Clock clock;
+
+    private UsernameFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        this.filter = new UsernameFilter(this.userRepository, this.clock, 1000L, 0.01);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Username filter - Not loaded")
+    public void testNotLoaded() {
+        assertThat(this.filter.mightExist("test")).isTrue();
+        verify(this.userRepository, never()).findAllListedAfter(anyLong(), any());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Username filter - Loaded")
+    public void testLoaded() {
+        when(this.userRepository.findAllListedAfter(0L, PAGE)).thenReturn(List.of(new UserDto(1L, "test1"), new UserDto(2L, "test2")));
+        this.filter.run(null);
+
+        assertThat(this.filter.mightExist("test2")).isTrue();
+        assertThat(this.filter.mightExist("unknown")).isFalse();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Username filter - Catches up on users registered elsewhere")
+    public void testCatchesUp() {
+        when(this.userRepository.findAllListedAfter(0L, PAGE)).thenReturn(List.of(new UserDto(1L, "test1")));
+        this.filter.run(null);
+
+        when(this.userRepository.findAllListedAfter(1L, PAGE)).thenReturn(List.of(new UserDto(2L, "test2")));
+        assertThat(this.filter.mightExist("test2")).isFalse(); // Until the next poll
+
+        this.filter.pollNewUsers();
+
+        assertThat(this.filter.mightExist("test2")).isTrue();
+        assertThat(this.filter.mightExist("unknown")).isFalse();
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Username filter - Database down while catching up")
+    public void testCatchUpFailed() {
+        when(this.userRepository.findAllListedAfter(0L, PAGE)).thenReturn(List.of(new UserDto(1L, "test1")));
+        this.filter.run(null);
+
+        when(this.userRepository.findAllListedAfter(1L, PAGE)).thenThrow(new DataAccessResourceFailureException("down"));
+        this.filter.pollNewUsers();
+
+        assertThat(this.filter.mightExist("unknown")).isTrue();
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Username filter - Rebuilt once deleted names pile up")
+    public void testRebuildAfterDeletes() {
+        when(this.userRepository.findAllListedAfter(0L, PAGE)).thenReturn(List.of(new UserDto(1L, "test1"), new UserDto(2L, "test2")));
+        this.filter.run(null);
+
+        this.filter.rebuildIfNeeded();
+        verify(this.userRepository, times(1)).findAllListedAfter(0L, PAGE);
+
+        this.filter.remove("test2");
+        when(this.userRepository.findAllListedAfter(0L, PAGE)).thenReturn(List.of(new UserDto(1L, "test1")));
+        this.filter.rebuildIfNeeded();
+
+        assertThat(this.filter.mightExist("test1")).isTrue();
+        assertThat(this.filter.mightExist("test2")).isFalse();
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Username filter - Metrics")
+    public void testMetrics() {
+        when(this.userRepository.findAllListedAfter(0L, PAGE)).thenReturn(List.of(new UserDto(1L, "test1"), new UserDto(2L, "test2")));
+        this.filter.run(null);
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        this.filter.bindTo(registry);
+        this.filter.mightExist("unknown");
+
+        assertThat(registry.get("username.filter.size").gauge().value()).isEqualTo(2048.0); // 9586 bits rounded up
+        assertThat(registry.get("username.filter.entries").gauge().value()).isEqualTo(2.0);
+        assertThat(registry.get("username.filter.false.positive.rate").gauge().value()).isLessThan(0.01);
+        assertThat(registry.get("username.filter.lookups.skipped").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("Username filter - Flood of unknown names issues no queries")
+    public void testUnknownNameFlood() {
+        when(this.userRepository.findAllListedAfter(0L, PAGE)).thenReturn(List.of(new UserDto(1L, "test1")));
+        this.filter.run(null);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(this.filter.mightExist("unknown" + i)).isFalse();
+        }
+
+        verify(this.userRepository, times(1)).findAllListedAfter(anyLong(), any());
+        verifyNoMoreInteractions(this.userRepository);
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Username filter - Caller that just wrote is looked up")
+    public void testPinnedCallerLookedUp() {
+        when(this.userRepository.findAllListedAfter(0L, PAGE)).thenReturn(List.of(new UserDto(1L, "test1")));
+        this.filter.run(null);
+
+        assertThat(this.filter.mightExistForCaller("test2")).isFalse();
+
+        DataSourceRouting.begin(true, () -> {});
+        try {
+            assertThat(this.filter.mightExistForCaller("test2")).isTrue(); // Registered elsewhere, not polled yet
+        } finally {
+            DataSourceRouting.end();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package me.thomazz.userservice.test.outbox;
+
+import lombok.RequiredArgsConstructor;
+import me.thomazz.userservice.UserApplication;
+import me.thomazz.userservice.dto.UserEventDto;
+import me.thomazz.userservice.entities.UserEventType;
+import me.thomazz.userservice.outbox.InMemoryUserEventSink;
+import me.thomazz.userservice.outbox.UserEventOutbox;
+import me.thomazz.userservice.outbox.UserEventRelay;
+import me.thomazz.userservice.outbox.UserEventSink;
+import me.thomazz.userservice.repository.UserEventRepository;
+import me.thomazz.userservice.repository.UserRepository;
+import me.thomazz.userservice.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@SpringBootTest(
+    classes = UserApplication.class,
+    properties = "spring.datasource.url=jdbc:h2:mem:outbox"
+)
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserEventOutboxApplicationTests {
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final UserEventOutbox outbox;
+    private final UserEventRelay relay;
+    private final UserEventRepository eventRepository;
+    private final UserEventSink eventSink;
+    private final TransactionTemplate transactions;
+
+    private InMemoryUserEventSink sink;
+
+    @BeforeEach
+    public void setup() {
+        this.sink = (InMemoryUserEventSink) this.eventSink; // Memory sink in the test configuration
+        this.userRepository.deleteAll();
+        this.eventRepository.deleteAll();
+        this.sink.clear();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Relay - Sequential lifecycle events, single relay")
+    public void testRelay() {
+        this.userService.registerUser("outbox1", "testing");
+        this.userService.registerUser("outbox2", "testing");
+        this.userService.registerUser("outbox3", "testing");
+        this.userService.loginUser("outbox1", "testing", "127.0.0.1");
+        long id = this.userRepository.findByUsername("outbox1").orElseThrow().getId();
+        this.userService.deleteUser(id);
+
+        this.relay.relay(); // Batches of two, the run continues until one comes back short
+
+        assertThat(this.sink.getEvents())
+            .extracting(UserEventDto::getType)
+            .containsExactly(
+                UserEventType.REGISTERED,
+                UserEventType.REGISTERED,
+                UserEventType.REGISTERED,
+                UserEventType.LOGGED_IN,
+                UserEventType.DELETED
+            );
+        assertThat(this.sink.getEvents())
+            .filteredOn(event -> event.getUserId() == id)
+            .extracting(UserEventDto::getUsername)
+            .containsOnly("outbox1")
+            .hasSize(3);
+        assertThat(this.sink.getEvents())
+            .filteredOn(event -> event.getUserId() == id)
+            .extracting(UserEventDto::getVersion)
+            .containsExactly(0L, 0L, 1L); // DELETED supersedes the registration
+        assertThat(this.sink.getEvents()).allMatch(event -> event.getCreatedAt() >= event.getOccurredAt());
+        assertThat(this.eventRepository.count()).isZero();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Relay - Failed sink keeps the batch")
+    public void testRelaySinkFailure() {
+        this.userService.registerUser("outbox4", "testing");
+
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> this.outbox.publishBatch(events -> {
+                throw new IllegalStateException("Broker unavailable");
+            }, 10));
+        assertThat(this.eventRepository.count()).isOne();
+
+        this.relay.relay();
+
+        assertThat(this.sink.getEvents()).extracting(UserEventDto::getUsername).containsExactly("outbox4");
+        assertThat(this.eventRepository.count()).isZero();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Record - Rolled back change leaves no event")
+    public void testRecordRolledBack() {
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> this.transactions.executeWithoutResult(status -> {
+                this.outbox.record(UserEventType.REGISTERED, 1L, "test", 0L);
+                throw new IllegalStateException("Change failed");
+            }));
+
+        assertThat(this.eventRepository.count()).isZero();
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Record - Outside of a transaction")
+    public void testRecordWithoutTransaction() {
+        assertThatExceptionOfType(IllegalTransactionStateException.class)
+            .isThrownBy(() -> this.outbox.record(UserEventType.REGISTERED, 1L, "test", 0L));
+    }
+}
@@ -1,8 +1,10 @@
 package me.thomazz.userservice.test.repository;
 
 import lombok.RequiredArgsConstructor;
+import me.thomazz.userservice.dto.UserDto;
 import me.thomazz.userservice.entities.User;
 import me.thomazz.userservice.repository.UserRepository;
+import me.thomazz.userservice.repository.UsernamePrefixMatch;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
@@ -12,6 +14,9 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 
@@ -19,6 +24,7 @@ import java.util.List;
 import java.util.NoSuchElementException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
@@ -149,4 +155,80 @@ public class UserRepositoryTests {
         List<User> foundUsers = this.userRepository.findAll();
         assertThat(foundUsers).isEmpty();
     }
+
+    @Test
+    @Order(6)
+    @DisplayName("Find users by username prefix")
+    public void testUserRepositoryFindByUsernamePrefix() {
+        this.userRepository.saveAll(List.of(
+            User.builder().username("Tom").password("testing").build(),
+            User.builder().username("tim").password("testing").build(),
+            User.builder().username("tobias").password("testing").build(),
+            User.builder().username("to_do").password("testing").build(),
+            User.builder().username("anna").password("testing").build()
+        ));
+
+        List<UsernamePrefixMatch> firstPage = this.userRepository.findByUsernamePrefix("t%", Limit.of(2));
+        assertThat(firstPage).containsExactly(new UsernamePrefixMatch(2L, "tim", 0L, "tim"), new UsernamePrefixMatch(4L, "to_do", 0L, "to_do"));
+
+        List<UsernamePrefixMatch> secondPage = this.userRepository.findByUsernamePrefixAfter("t%", "to_do", 4L, Limit.of(2));
+        assertThat(secondPage).containsExactly(new UsernamePrefixMatch(3L, "tobias", 0L, "tobias"), new UsernamePrefixMatch(1L, "Tom", 0L, "tom"));
+
+        List<UsernamePrefixMatch> escaped = this.userRepository.findByUsernamePrefix("to!_%", Limit.of(10));
+        assertThat(escaped).extracting(UsernamePrefixMatch::toDto).containsExactly(new UserDto(4L, "to_do"));
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("Save user - Username reserved until deleted")
+    public void testUserRepositorySaveUsernameReserved() {
+        this.userRepository.save(User.builder().username("test").password("testing").build());
+
+        assertThatExceptionOfType(DataIntegrityViolationException.class)
+            .isThrownBy(() -> this.userRepository.save(User.builder().username("test").password("other").build()));
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Delete user - Username released")
+    public void testUserRepositoryDeleteReleasesUsername() {
+        User user = this.userRepository.save(User.builder().username("test").password("testing").build());
+        this.userRepository.deleteUserRow(user.getId());
+
+        assertThat(this.userRepository.findByUsername("test")).isEmpty();
+
+        User saved = this.userRepository.save(User.builder().username("test").password("other").build());
+        assertThat(this.userRepository.findByUsername("test")).contains(saved);
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("Find users after id")
+    public void testUserRepositoryFindAllListedAfter() {
+        this.userRepository.saveAll(List.of(
+            User.builder().username("test1").password("testing").build(),
+            User.builder().username("test2").password("testing").build(),
+            User.builder().username("test3").password("testing").build()
+        ));
+
+        assertThat(this.userRepository.findAllListedAfter(0L, Limit.of(2)))
+            .containsExactly(new UserDto(1L, "test1"), new UserDto(2L, "test2"));
+        assertThat(this.userRepository.findAllListedAfter(2L, Limit.of(2)))
+            .containsExactly(new UserDto(3L, "test3"));
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Update user - Version incremented")
+    public void testUserRepositoryUpdateIncrementsVersion() {
+        User user = this.userRepository.saveAndFlush(User.builder().username("test").password("testing").build());
+        assertThat(user.getVersion()).isZero();
+
+        user.setPassword("other");
+        User updated = this.userRepository.saveAndFlush(user);
+
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        assertThat(this.userRepository.findAllListedByIds(List.of(user.getId(), 99L)))
+            .containsExactly(new UserDto(user.getId(), "test", 1L));
+    }
 }
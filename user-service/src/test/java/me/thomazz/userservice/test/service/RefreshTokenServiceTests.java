@@ -0,0 +1,134 @@
+package me.thomazz.userservice.test.service;
+
+import me.thomazz.userservice.entities.RefreshToken;
+import me.thomazz.userservice.exception.RefreshTokenInvalidException;
+import me.thomazz.userservice.repository.RefreshTokenRepository;
+import me.thomazz.userservice.service.RefreshTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class RefreshTokenServiceTests {
+    private final Clock clock = Clock.fixed(Instant.ofEpochSecond(1000L), ZoneOffset.UTC);
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+    private String token;
+
+    @BeforeEach
+    public void setup() {
+        this.refreshTokenService = new RefreshTokenService(this.refreshTokenRepository, "P30D", this.clock);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Issue and consume - Valid")
+    public void testIssueAndConsumeValid() {
+        RefreshToken stored = this.issue();
+
+        when(this.refreshTokenRepository.findById(2L)).thenReturn(Optional.of(stored));
+        when(this.refreshTokenRepository.deleteConsumed(2L)).thenReturn(1);
+
+        assertThat(stored.getExpiresAt()).isEqualTo(this.clock.instant().plus(Duration.ofDays(30L)));
+        assertThat(this.refreshTokenService.consume(this.token)).isEqualTo(1L);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Consume - Wrong secret")
+    public void testConsumeWrongSecret() {
+        RefreshToken stored = this.issue();
+
+        when(this.refreshTokenRepository.findById(2L)).thenReturn(Optional.of(stored));
+
+        String tampered = "2." + "A".repeat(43);
+        assertThatExceptionOfType(RefreshTokenInvalidException.class)
+            .isThrownBy(() -> this.refreshTokenService.consume(tampered));
+        verify(this.refreshTokenRepository, never()).deleteConsumed(anyLong());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Consume - Expired")
+    public void testConsumeExpired() {
+        RefreshToken stored = this.issue();
+        stored.setExpiresAt(this.clock.instant());
+
+        when(this.refreshTokenRepository.findById(2L)).thenReturn(Optional.of(stored));
+
+        assertThatExceptionOfType(RefreshTokenInvalidException.class)
+            .isThrownBy(() -> this.refreshTokenService.consume(this.token));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Consume - Already used")
+    public void testConsumeAlreadyUsed() {
+        RefreshToken stored = this.issue();
+
+        when(this.refreshTokenRepository.findById(2L)).thenReturn(Optional.of(stored));
+        when(this.refreshTokenRepository.deleteConsumed(2L)).thenReturn(0);
+
+        assertThatExceptionOfType(RefreshTokenInvalidException.class)
+            .isThrownBy(() -> this.refreshTokenService.consume(this.token));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Consume - Malformed")
+    public void testConsumeMalformed() {
+        assertThatExceptionOfType(RefreshTokenInvalidException.class)
+            .isThrownBy(() -> this.refreshTokenService.consume("malformed"));
+        assertThatExceptionOfType(RefreshTokenInvalidException.class)
+            .isThrownBy(() -> this.refreshTokenService.consume("2.$$$"));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Purge expired refresh tokens")
+    public void testPurgeExpired() {
+        this.refreshTokenService.purgeExpired();
+
+        verify(this.refreshTokenRepository).deleteExpired(this.clock.instant());
+    }
+
+    private RefreshToken issue() {
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        when(this.refreshTokenRepository.save(any())).thenAnswer(invocation -> {
+            RefreshToken refreshToken = invocation.getArgument(0);
+            refreshToken.setId(2L);
+            return refreshToken;
+        });
+
+        this.token = this.refreshTokenService.issue(1L);
+
+        verify(this.refreshTokenRepository).save(captor.capture());
+        assertThat(this.token).startsWith("2.");
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,91 @@
+package me.thomazz.userservice.test.service;
+
+import me.thomazz.userservice.dto.TokenRevocationDto;
+import me.thomazz.userservice.entities.TokenRevocation;
+import me.thomazz.userservice.repository.TokenRevocationRepository;
+import me.thomazz.userservice.service.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class TokenRevocationServiceTests {
+    private final Clock clock = Clock.fixed(Instant.ofEpochSecond(1000L), ZoneOffset.UTC);
+
+    @Mock
+    private TokenRevocationRepository revocationRepository;
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    public void setup() {
+        this.revocationService = new TokenRevocationService(this.revocationRepository, "PT15M", this.clock);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Revoke user")
+    public void testRevokeUser() {
+        this.revocationService.revokeUser(1L);
+
+        TokenRevocation expected = TokenRevocation.builder()
+            .subject(1L)
+            .revokedAt(this.clock.instant())
+            .expiresAt(this.clock.instant().plus(Duration.ofMinutes(15L)))
+            .build();
+
+        verify(this.revocationRepository).save(expected);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Get revocations")
+    public void testGetRevocations() {
+        TokenRevocation revocation = TokenRevocation.builder()
+            .id(2L)
+            .subject(1L)
+            .revokedAt(this.clock.instant())
+            .expiresAt(this.clock.instant().plus(Duration.ofMinutes(15L)))
+            .build();
+
+        when(this.revocationRepository.findActiveAfter(eq(1L), eq(this.clock.instant()), any()))
+            .thenReturn(List.of(revocation));
+
+        TokenRevocationDto expected = TokenRevocationDto.builder()
+            .id(2L)
+            .subject(1L)
+            .revokedAt(1000L)
+            .expiresAt(1900L)
+            .build();
+
+        assertThat(this.revocationService.getRevocations(1L)).containsExactly(expected);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Purge expired revocations")
+    public void testPurgeExpired() {
+        this.revocationService.purgeExpired();
+
+        verify(this.revocationRepository).deleteExpired(this.clock.instant());
+    }
+}
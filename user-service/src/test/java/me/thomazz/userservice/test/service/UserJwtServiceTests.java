@@ -5,18 +5,28 @@ import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import me.thomazz.userservice.jwt.EcJwtSigner;
+import me.thomazz.userservice.jwt.HmacJwtSigner;
+import me.thomazz.userservice.jwt.JwtSigningKey;
 import me.thomazz.userservice.service.UserJwtService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.Date;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -26,10 +36,11 @@ public class UserJwtServiceTests {
     private final Clock clock = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
     private final String secret = "EOwOOG2hds94sChfQqm92yQlahx02KOPPbVEw4SQuLY=";
     private final UserJwtService userService = new UserJwtService(
-        this.secret, "PT15M", Clock.fixed(Instant.now(), ZoneOffset.UTC)
+        new HmacJwtSigner(this.secret), "PT15M", Clock.fixed(Instant.now(), ZoneOffset.UTC)
     );
 
     @Test
+    @Order(1)
     @DisplayName("Token generation")
     public void testGenerateToken() {
         String token = this.userService.generateToken(1L);
@@ -43,4 +54,56 @@ public class UserJwtServiceTests {
 
         assertThat(jws.getBody().get("id")).isEqualTo(1); // Long signature is lost during compacting
     }
+
+    @Test
+    @Order(2)
+    @DisplayName("Token generation - Identical to JJWT builder")
+    public void testGenerateTokenIdenticalToBuilder() {
+        UserJwtService jwtService = new UserJwtService(new HmacJwtSigner(this.secret), "PT15M", this.clock);
+
+        assertThat(jwtService.generateToken(1L)).isEqualTo(this.buildToken(this.secret, 1L));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Token generation - Identical to JJWT builder for larger keys")
+    public void testGenerateTokenIdenticalToBuilderLargerKey() {
+        String secret = "u54uRMpTlbBWLEiy+GKj6Ie+dGWtkkuaNU40k0B+VYR9bajhURWwyw2PB/LjHiLQ"; // 64 bytes, signs with HS512
+        UserJwtService jwtService = new UserJwtService(new HmacJwtSigner(secret), "PT15M", this.clock);
+
+        assertThat(jwtService.generateToken(Long.MAX_VALUE)).isEqualTo(this.buildToken(secret, Long.MAX_VALUE));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Token generation - ES256")
+    public void testGenerateTokenEcdsa() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+
+        JwtSigningKey key = new JwtSigningKey("key-1", keyPair.getPrivate(), (ECPublicKey) keyPair.getPublic());
+        UserJwtService jwtService = new UserJwtService(new EcJwtSigner(key), "PT15M", this.clock);
+
+        JwtParser parser = Jwts.parserBuilder()
+            .setClock(() -> Date.from(this.clock.instant()))
+            .setSigningKey(keyPair.getPublic())
+            .build();
+
+        Jws<Claims> jws = parser.parseClaimsJws(jwtService.generateToken(1L));
+
+        assertThat(jws.getHeader().getKeyId()).isEqualTo("key-1");
+        assertThat(jws.getHeader().getAlgorithm()).isEqualTo("ES256");
+        assertThat(jws.getBody().getSubject()).isEqualTo("1");
+    }
+
+    private String buildToken(String secret, long userId) {
+        return Jwts.builder()
+            .setClaims(Map.of("id", userId))
+            .setSubject(Long.toString(userId))
+            .setIssuedAt(Date.from(this.clock.instant()))
+            .setExpiration(Date.from(Instant.now(this.clock).plus(Duration.ofMinutes(15L))))
+            .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+            .compact();
+    }
 }
@@ -0,0 +1,143 @@
+package me.thomazz.userservice.test.service;
+
+import me.thomazz.userservice.dto.UserDto;
+import me.thomazz.userservice.exception.UserPageSizeLimitExceededException;
+import me.thomazz.userservice.exception.UserSearchCursorInvalidException;
+import me.thomazz.userservice.repository.UserRepository;
+import me.thomazz.userservice.repository.UsernameMatch;
+import me.thomazz.userservice.repository.UsernamePrefixMatch;
+import me.thomazz.userservice.service.UserSearchPage;
+import me.thomazz.userservice.service.UserSearchService;
+import me.thomazz.userservice.service.UsernamePrefixCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class UserSearchServiceTests {
+    private final Clock clock = Clock.fixed(Instant.ofEpochSecond(1000L), ZoneOffset.UTC);
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserSearchService userSearchService;
+
+    @BeforeEach
+    public void setup() {
+        UsernamePrefixCache prefixCache = new UsernamePrefixCache(16, Duration.ofSeconds(10L), 2, this.clock);
+        this.userSearchService = new UserSearchService(this.userRepository, prefixCache, 10);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Search by short prefix - Served from cache")
+    public void testSearchByShortPrefixCached() {
+        List<UsernamePrefixMatch> users = List.of(match(1L, "Tim"), match(2L, "tom"));
+        when(this.userRepository.findByUsernamePrefix("t%", Limit.of(10))).thenReturn(users);
+
+        assertThat(this.userSearchService.searchByPrefix("T", 1, null).users()).containsExactly(new UserDto(1L, "Tim"));
+        assertThat(this.userSearchService.searchByPrefix("t", 5, null).users()).containsExactly(new UserDto(1L, "Tim"), new UserDto(2L, "tom"));
+
+        verify(this.userRepository, times(1)).findByUsernamePrefix("t%", Limit.of(10));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Search by long prefix - Escaped and not cached")
+    public void testSearchByLongPrefixEscaped() {
+        when(this.userRepository.findByUsernamePrefix("to!_do!%%", Limit.of(5))).thenReturn(List.of(match(1L, "to_do%")));
+
+        assertThat(this.userSearchService.searchByPrefix("TO_DO%", 5, null).users()).containsExactly(new UserDto(1L, "to_do%"));
+        assertThat(this.userSearchService.searchByPrefix("TO_DO%", 5, null).users()).containsExactly(new UserDto(1L, "to_do%"));
+
+        verify(this.userRepository, times(2)).findByUsernamePrefix("to!_do!%%", Limit.of(5));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Search by prefix after cursor - Keyset continuation without a lookup")
+    public void testSearchByPrefixAfter() {
+        when(this.userRepository.findByUsernamePrefix("tom%", Limit.of(2))).thenReturn(List.of(match(4L, "Tom"), match(5L, "tomas")));
+        when(this.userRepository.findByUsernamePrefixAfter("tom%", "tomas", 5L, Limit.of(2))).thenReturn(List.of(match(7L, "tommy")));
+
+        UserSearchPage first = this.userSearchService.searchByPrefix("tom", 2, null);
+        UserSearchPage second = this.userSearchService.searchByPrefix("tom", 2, first.next());
+
+        assertThat(first.next()).isNotNull();
+        assertThat(second.users()).containsExactly(new UserDto(7L, "tommy"));
+        assertThat(second.next()).isNull(); // Short page, nothing after it
+        verify(this.userRepository, never()).findById(any());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Search fuzzy")
+    public void testSearchFuzzy() {
+        UsernameMatch match = new UsernameMatch() {
+            @Override
+            public long getId() {
+                return 3L;
+            }
+
+            @Override
+            public String getUsername() {
+                return "Thomas";
+            }
+
+            @Override
+            public long getVersion() {
+                return 2L;
+            }
+        };
+
+        when(this.userRepository.findByUsernameSimilar("tomas", 5)).thenReturn(List.of(match));
+
+        assertThat(this.userSearchService.searchFuzzy("Tomas", 5)).containsExactly(new UserDto(3L, "Thomas", 2L));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Search - Limit exceeded")
+    public void testSearchLimitExceeded() {
+        assertThatExceptionOfType(UserPageSizeLimitExceededException.class)
+            .isThrownBy(() -> this.userSearchService.searchByPrefix("t", 11, null));
+
+        assertThatExceptionOfType(UserPageSizeLimitExceededException.class)
+            .isThrownBy(() -> this.userSearchService.searchFuzzy("t", 0));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Search by prefix - Invalid cursor")
+    public void testSearchByPrefixInvalidCursor() {
+        assertThatExceptionOfType(UserSearchCursorInvalidException.class)
+            .isThrownBy(() -> this.userSearchService.searchByPrefix("t", 5, "not a cursor"));
+    }
+
+    private static UsernamePrefixMatch match(long id, String username) {
+        return new UsernamePrefixMatch(id, username, 0L, username.toLowerCase(Locale.ROOT));
+    }
+}
@@ -2,9 +2,23 @@ package me.thomazz.userservice.test.service;
 
 import me.thomazz.userservice.configuration.UserConfiguration;
 import me.thomazz.userservice.dto.UserDto;
+import me.thomazz.userservice.dto.UserRevalidationDto;
+import me.thomazz.userservice.dto.UserTokensDto;
+import me.thomazz.userservice.dto.UserVersionDto;
 import me.thomazz.userservice.entities.User;
+import me.thomazz.userservice.entities.UserEventType;
+import me.thomazz.userservice.exception.LoginThrottledException;
+import me.thomazz.userservice.exception.UserInvalidPasswordException;
+import me.thomazz.userservice.exception.UserNotFoundException;
 import me.thomazz.userservice.exception.UserPageSizeLimitExceededException;
+import me.thomazz.userservice.exception.UsernameAlreadyExistsException;
+import me.thomazz.userservice.login.LoginThrottle;
+import me.thomazz.userservice.login.UnknownUserPasswordCheck;
+import me.thomazz.userservice.login.UsernameFilter;
+import me.thomazz.userservice.outbox.UserEventOutbox;
 import me.thomazz.userservice.repository.UserRepository;
+import me.thomazz.userservice.service.RefreshTokenService;
+import me.thomazz.userservice.service.TokenRevocationService;
 import me.thomazz.userservice.service.UserJwtService;
 import me.thomazz.userservice.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,22 +28,34 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,12 +66,33 @@ public class UserServiceTests {
     @Mock
     private UserJwtService jwtService;
 
+    @Mock
+    private TokenRevocationService revocationService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UsernameFilter usernameFilter;
+
+    @Mock
+    private UnknownUserPasswordCheck unknownUserPasswordCheck;
+
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private UserEventOutbox eventOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     private int pageSizeLimit;
 
@@ -55,9 +102,16 @@ public class UserServiceTests {
     public void setup() {
         this.userService = new UserService(
             this.jwtService,
+            this.revocationService,
+            this.refreshTokenService,
             this.userRepository,
             this.passwordEncoder,
             new ModelMapper(),
+            this.usernameFilter,
+            this.unknownUserPasswordCheck,
+            this.loginThrottle,
+            this.eventOutbox,
+            new TransactionTemplate(this.transactionManager),
             this.pageSizeLimit
         );
     }
@@ -66,23 +120,19 @@ public class UserServiceTests {
     @Order(1)
     @DisplayName("Get all users")
     public void testGetAllUsers() {
-        when(this.passwordEncoder.encode(any())).thenAnswer(invocation -> invocation.getArguments()[0]);
-
         Pageable pageable = PageRequest.of(0, 2);
 
-        User user1 = User.builder()
+        UserDto user1 = UserDto.builder()
             .id(1L)
             .username("test1")
-            .password(this.passwordEncoder.encode("testing1"))
             .build();
 
-        User user2 = User.builder()
+        UserDto user2 = UserDto.builder()
             .id(2L)
             .username("test2")
-            .password(this.passwordEncoder.encode("testing2"))
             .build();
 
-        when(this.userRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(user1, user2)));
+        when(this.userRepository.findAllListed(pageable)).thenReturn(List.of(user1, user2));
 
         List<UserDto> allUsers = this.userService.getAllUsers(pageable);
 
@@ -138,6 +188,11 @@ public class UserServiceTests {
     @DisplayName("Register user")
     public void testRegisterUser() {
         when(this.passwordEncoder.encode(any())).thenAnswer(invocation -> invocation.getArguments()[0]);
+        when(this.userRepository.save(any())).thenAnswer(invocation -> {
+            User saved = invocation.getArgument(0);
+            saved.setId(1L); // Identity assigned on insert
+            return saved;
+        });
 
         this.userService.registerUser("test", "testing");
 
@@ -145,8 +200,12 @@ public class UserServiceTests {
             .username("test")
             .password(this.passwordEncoder.encode("testing"))
             .build();
+        expected.setId(1L);
 
         verify(this.userRepository).save(expected);
+        verify(this.userRepository, never()).findByUsername(any());
+        verify(this.usernameFilter).add("test");
+        verify(this.eventOutbox).record(UserEventType.REGISTERED, 1L, "test", 0L);
     }
 
     @Test
@@ -161,13 +220,17 @@ public class UserServiceTests {
             .password(this.passwordEncoder.encode("testing"))
             .build();
 
+        when(this.usernameFilter.mightExistForCaller("test")).thenReturn(true);
         when(this.userRepository.findByUsername("test")).thenReturn(Optional.of(user));
         when(this.jwtService.generateToken(1L)).thenReturn("token");
+        when(this.refreshTokenService.issue(1L)).thenReturn("refresh");
         when(this.passwordEncoder.matches("testing", "testing")).thenReturn(true);
 
-        String token = this.userService.loginUser("test", "testing");
+        UserTokensDto tokens = this.userService.loginUser("test", "testing", "127.0.0.1");
 
-        assertThat(token).isEqualTo("token");
+        assertThat(tokens).isEqualTo(new UserTokensDto("token", "refresh"));
+        verify(this.loginThrottle).recordSuccess("test");
+        verify(this.eventOutbox).record(UserEventType.LOGGED_IN, 1L, "test", 0L);
     }
 
     @Test
@@ -186,6 +249,194 @@ public class UserServiceTests {
 
         this.userService.deleteUser(1L);
 
-        verify(this.userRepository).deleteById(1L);
+        verify(this.userRepository).deleteUserRow(1L);
+        verify(this.usernameFilter).remove("test");
+        verify(this.revocationService).revokeUser(1L);
+        verify(this.refreshTokenService).revokeUser(1L);
+        verify(this.eventOutbox).record(UserEventType.DELETED, 1L, "test", 1L);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("Refresh user")
+    public void testRefreshUser() {
+        when(this.refreshTokenService.consume("refresh")).thenReturn(1L);
+        when(this.jwtService.generateToken(1L)).thenReturn("token");
+        when(this.refreshTokenService.issue(1L)).thenReturn("refresh2");
+
+        UserTokensDto tokens = this.userService.refreshUser("refresh");
+
+        assertThat(tokens).isEqualTo(new UserTokensDto("token", "refresh2"));
+        verify(this.passwordEncoder, never()).matches(any(), any());
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Get users after id")
+    public void testGetUsersAfter() {
+        List<UserDto> users = List.of(new UserDto(3L, "test3"));
+        when(this.userRepository.findAllListedAfter(2L, Limit.of(1))).thenReturn(users);
+
+        assertThat(this.userService.getUsersAfter(2L, 1)).isEqualTo(users);
+
+        assertThatExceptionOfType(UserPageSizeLimitExceededException.class)
+            .isThrownBy(() -> this.userService.getUsersAfter(0L, this.pageSizeLimit + 1));
+        assertThatExceptionOfType(UserPageSizeLimitExceededException.class)
+            .isThrownBy(() -> this.userService.getUsersAfter(0L, 0));
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("Revalidate users")
+    public void testRevalidateUsers() {
+        List<UserVersionDto> known = List.of(new UserVersionDto(1L, 0L), new UserVersionDto(2L, 3L), new UserVersionDto(3L, 0L));
+
+        when(this.userRepository.findAllListedByIds(Set.of(1L, 2L, 3L)))
+            .thenReturn(List.of(new UserDto(1L, "test1", 0L), new UserDto(2L, "renamed", 4L)));
+
+        UserRevalidationDto revalidation = this.userService.revalidateUsers(known);
+
+        assertThat(revalidation.getChanged()).containsExactly(new UserDto(2L, "renamed", 4L));
+        assertThat(revalidation.getDeleted()).containsExactly(3L);
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Revalidate users - Limit exceeded")
+    public void testRevalidateUsersLimitExceeded() {
+        List<UserVersionDto> known = LongStream.rangeClosed(1L, this.pageSizeLimit + 1L)
+            .mapToObj(id -> new UserVersionDto(id, 0L))
+            .toList();
+
+        assertThatExceptionOfType(UserPageSizeLimitExceededException.class)
+            .isThrownBy(() -> this.userService.revalidateUsers(known));
+        verify(this.userRepository, never()).findAllListedByIds(any());
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("Login user - Unknown username ruled out by the filter")
+    public void testLoginUserFilteredOut() {
+        when(this.usernameFilter.mightExistForCaller("unknown")).thenReturn(false);
+
+        assertThatExceptionOfType(UserNotFoundException.class)
+            .isThrownBy(() -> this.userService.loginUser("unknown", "testing", "127.0.0.1"));
+        verify(this.userRepository, never()).findByUsername(any());
+        verify(this.unknownUserPasswordCheck).verify("testing");
+        verify(this.loginThrottle).recordFailure("unknown", "127.0.0.1");
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("Login user - Unknown username after lookup")
+    public void testLoginUserNotFound() {
+        when(this.usernameFilter.mightExistForCaller("unknown")).thenReturn(true);
+        when(this.userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+
+        assertThatExceptionOfType(UserNotFoundException.class)
+            .isThrownBy(() -> this.userService.loginUser("unknown", "testing", "127.0.0.1"));
+        verify(this.unknownUserPasswordCheck).verify("testing");
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("Register user - Username taken")
+    public void testRegisterUserTaken() {
+        when(this.usernameFilter.mightExist("test")).thenReturn(true);
+        when(this.userRepository.findByUsername("test")).thenReturn(Optional.of(User.builder().id(1L).username("test").build()));
+
+        assertThatExceptionOfType(UsernameAlreadyExistsException.class)
+            .isThrownBy(() -> this.userService.registerUser("test", "testing"));
+        verify(this.userRepository, never()).save(any());
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("Login user - Throttled before hashing")
+    public void testLoginUserThrottled() {
+        doThrow(new LoginThrottledException()).when(this.loginThrottle).check("test", "127.0.0.1");
+
+        assertThatExceptionOfType(LoginThrottledException.class)
+            .isThrownBy(() -> this.userService.loginUser("test", "testing", "127.0.0.1"));
+        verify(this.userRepository, never()).findByUsername(any());
+        verify(this.passwordEncoder, never()).matches(any(), any());
+        verify(this.unknownUserPasswordCheck, never()).verify(any());
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("Login user - Wrong password counted")
+    public void testLoginUserInvalidPassword() {
+        when(this.usernameFilter.mightExistForCaller("test")).thenReturn(true);
+        when(this.userRepository.findByUsername("test")).thenReturn(Optional.of(User.builder().id(1L).username("test").password("hash").build()));
+        when(this.passwordEncoder.matches("wrong", "hash")).thenReturn(false);
+
+        assertThatExceptionOfType(UserInvalidPasswordException.class)
+            .isThrownBy(() -> this.userService.loginUser("test", "wrong", "127.0.0.1"));
+        verify(this.loginThrottle).recordFailure("test", "127.0.0.1");
+        verify(this.eventOutbox, never()).record(any(), anyLong(), any(), anyLong());
+    }
+
+    @Test
+    @Order(17)
+    @DisplayName("Login user - Password checked outside of a transaction")
+    public void testLoginUserPasswordOutsideTransaction() {
+        when(this.usernameFilter.mightExistForCaller("test")).thenReturn(true);
+        when(this.userRepository.findByUsername("test")).thenReturn(Optional.of(User.builder().id(1L).username("test").password("hash").build()));
+        when(this.passwordEncoder.matches("testing", "hash")).thenReturn(true);
+
+        this.userService.loginUser("test", "testing", "127.0.0.1");
+
+        InOrder order = inOrder(this.transactionManager, this.userRepository, this.passwordEncoder, this.refreshTokenService);
+        order.verify(this.userRepository).findByUsername("test"); // In the repository's own read only transaction
+        order.verify(this.passwordEncoder).matches("testing", "hash");
+        order.verify(this.transactionManager).getTransaction(any());
+        order.verify(this.refreshTokenService).issue(1L);
+        order.verify(this.transactionManager).commit(any());
+        verify(this.transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    @Order(18)
+    @DisplayName("Register user - Username taken after the filter check")
+    public void testRegisterUserTakenConcurrently() {
+        when(this.usernameFilter.mightExist("test")).thenReturn(false);
+        when(this.userRepository.save(any())).thenThrow(new DataIntegrityViolationException("username_index"));
+
+        assertThatExceptionOfType(UsernameAlreadyExistsException.class)
+            .isThrownBy(() -> this.userService.registerUser("test", "testing"));
+        verify(this.usernameFilter, never()).add(any());
+        verify(this.eventOutbox, never()).record(any(), anyLong(), any(), anyLong());
+    }
+
+    @Test
+    @Order(19)
+    @DisplayName("For each user chunk - Keyset chunks after the previous page")
+    public void testForEachUserChunk() {
+        Pageable pageable = PageRequest.of(1, 30);
+        List<UserDto> first = LongStream.rangeClosed(31L, 55L).mapToObj(id -> new UserDto(id, "test" + id)).toList();
+        List<UserDto> second = LongStream.rangeClosed(56L, 60L).mapToObj(id -> new UserDto(id, "test" + id)).toList();
+
+        when(this.userRepository.findAllListed(PageRequest.of(29, 1))).thenReturn(List.of(new UserDto(30L, "test30")));
+        when(this.userRepository.findAllListedAfter(30L, Limit.of(25))).thenReturn(first);
+        when(this.userRepository.findAllListedAfter(55L, Limit.of(5))).thenReturn(second);
+
+        List<List<UserDto>> chunks = new ArrayList<>();
+        this.userService.forEachUserChunk(pageable, chunks::add);
+
+        assertThat(chunks).containsExactly(first, second);
+    }
+
+    @Test
+    @Order(20)
+    @DisplayName("For each user chunk - Short chunk ends the page")
+    public void testForEachUserChunkShort() {
+        when(this.userRepository.findAllListedAfter(0L, Limit.of(25))).thenReturn(List.of(new UserDto(1L, "test1")));
+
+        List<List<UserDto>> chunks = new ArrayList<>();
+        this.userService.forEachUserChunk(PageRequest.of(0, 50), chunks::add);
+
+        assertThat(chunks).containsExactly(List.of(new UserDto(1L, "test1")));
+        verify(this.userRepository, times(1)).findAllListedAfter(anyLong(), any());
     }
 }
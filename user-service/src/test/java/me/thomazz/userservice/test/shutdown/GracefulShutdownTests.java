@@ -0,0 +1,143 @@
+package me.thomazz.userservice.test.shutdown;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import me.thomazz.userservice.UserApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the service on a real port, a slow request stands in for a bcrypt hash that is still running at SIGTERM.
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+public class GracefulShutdownTests {
+    private final CountDownLatch slowRequestStarted = new CountDownLatch(1);
+    private final CountDownLatch draining = new CountDownLatch(1);
+    private ConfigurableApplicationContext context;
+    private int port;
+
+    @BeforeEach
+    public void setup() {
+        this.context = new SpringApplicationBuilder(UserApplication.class)
+            .properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:shutdown")
+            .initializers(context -> ((GenericApplicationContext) context).registerBean("slowRequestFilter", Filter.class, () -> this::slowRequest))
+            .listeners((ApplicationListener<AvailabilityChangeEvent<?>>) event -> {
+                if (event.getState() == ReadinessState.REFUSING_TRAFFIC) {
+                    this.draining.countDown();
+                }
+            })
+            .run();
+        this.port = ((WebServerApplicationContext) this.context).getWebServer().getPort();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Shutdown - Completes in flight request")
+    public void testShutdownCompletesInFlightRequest() throws Exception {
+        CompletableFuture<HttpResponse<String>> response = HttpClient.newHttpClient().sendAsync(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + "/test/slow")).build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+        assertThat(this.slowRequestStarted.await(10L, TimeUnit.SECONDS)).isTrue();
+
+        this.context.close();
+
+        assertThat(response.get(10L, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+        assertThat(response.get().body()).isEqualTo("done");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Shutdown - Closes kept alive connections")
+    public void testShutdownClosesKeptAliveConnections() throws Exception {
+        try (Socket socket = new Socket("localhost", this.port)) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+            assertThat(this.exchange(socket, reader)).doesNotContain("Connection: close");
+
+            // Keeps the shutdown waiting while the kept alive connection is used again
+            HttpClient.newHttpClient().sendAsync(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + "/test/slow")).build(),
+                HttpResponse.BodyHandlers.discarding()
+            );
+            assertThat(this.slowRequestStarted.await(10L, TimeUnit.SECONDS)).isTrue();
+
+            CompletableFuture<Void> shutdown = CompletableFuture.runAsync(this.context::close);
+            assertThat(this.draining.await(10L, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(this.exchange(socket, reader)).contains("HTTP/1.1 204 ", "Connection: close");
+            assertThat(reader.read()).isEqualTo(-1);
+
+            shutdown.get(10L, TimeUnit.SECONDS);
+        }
+    }
+
+    private List<String> exchange(Socket socket, BufferedReader reader) throws IOException {
+        OutputStream output = socket.getOutputStream();
+        output.write("GET /test/fast HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        output.flush();
+
+        List<String> headers = new ArrayList<>();
+        for (String line = reader.readLine(); line != null && !line.isEmpty(); line = reader.readLine()) {
+            headers.add(line);
+        }
+
+        return headers;
+    }
+
+    private void slowRequest(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException {
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        switch (((HttpServletRequest) request).getRequestURI()) {
+            case "/test/fast" -> httpResponse.setStatus(204);
+            case "/test/slow" -> {
+                this.slowRequestStarted.countDown();
+                try {
+                    // Still running well after the shutdown started
+                    this.draining.await(10L, TimeUnit.SECONDS);
+                    Thread.sleep(500L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                httpResponse.getWriter().write("done");
+            }
+            default -> httpResponse.setStatus(404);
+        }
+    }
+}
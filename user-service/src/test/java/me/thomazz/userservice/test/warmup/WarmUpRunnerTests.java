@@ -0,0 +1,69 @@
+package me.thomazz.userservice.test.warmup;
+
+import lombok.RequiredArgsConstructor;
+import me.thomazz.userservice.UserApplication;
+import me.thomazz.userservice.repository.UserRepository;
+import me.thomazz.userservice.service.UserSearchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest(classes = UserApplication.class, properties = "warm-up.iterations=3")
+@Import(WarmUpRunnerTests.ReadinessRecorder.class)
+@DirtiesContext
+@TestMethodOrder(value = MethodOrderer.OrderAnnotation.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class WarmUpRunnerTests {
+    private final ReadinessRecorder recorder;
+    private final UserRepository repository;
+
+    @SpyBean
+    private UserSearchService searchService;
+
+    @Test
+    @Order(1)
+    @DisplayName("Warm up - Runs before accepting traffic")
+    public void testWarmUpRunsBeforeReady() {
+        assertThat(this.recorder.searchesWhenReady).isEqualTo(3);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Warm up - Leaves no data behind")
+    public void testWarmUpOnlyReads() {
+        assertThat(this.repository.count()).isZero();
+    }
+
+    // Counts the warm-up searches at the moment readiness switches to ACCEPTING_TRAFFIC
+    @TestConfiguration
+    public static class ReadinessRecorder {
+        private final ObjectProvider<UserSearchService> searchService;
+        private volatile int searchesWhenReady = -1;
+
+        public ReadinessRecorder(ObjectProvider<UserSearchService> searchService) {
+            this.searchService = searchService;
+        }
+
+        @EventListener
+        public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+            if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                this.searchesWhenReady = mockingDetails(this.searchService.getObject()).getInvocations().size();
+            }
+        }
+    }
+}